@@ -0,0 +1,30 @@
+package org.pwr.store.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Configuration
+public class MetricsConfig {
+
+    // Adds the controller method (e.g. OrderController.createOrder) to http.server.requests
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+                String handlerName = handler instanceof HandlerMethod handlerMethod
+                        ? handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName()
+                        : "none";
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("handler", handlerName));
+            }
+        };
+    }
+}
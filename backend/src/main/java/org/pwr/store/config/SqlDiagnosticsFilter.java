@@ -0,0 +1,98 @@
+package org.pwr.store.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.util.SqlStatementCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements and database time of every request and warns when an endpoint exceeds
+ * its statement budget. With app.sql-diagnostics.headers=true (diagnostic profile) the totals are
+ * also returned as X-SQL-Count / X-SQL-Time headers; the response is buffered for that.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlDiagnosticsFilter extends OncePerRequestFilter {
+
+    private final boolean headers;
+    private final int defaultBudget;
+    private final Map<String, Integer> budgets = new HashMap<>();
+
+    public SqlDiagnosticsFilter(@Value("${app.sql-diagnostics.headers:false}") boolean headers,
+                                @Value("${app.sql-diagnostics.default-budget:20}") int defaultBudget,
+                                @Value("${app.sql-diagnostics.budgets:}") String budgets) {
+        this.headers = headers;
+        this.defaultBudget = defaultBudget;
+        // Format: Controller.method=budget,Controller.method=budget
+        for (String entry : budgets.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length == 2) {
+                this.budgets.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        // Login endpoints complete asynchronously (after this filter returns), so they are never buffered
+        boolean buffer = headers && !request.getRequestURI().startsWith("/api/auth/");
+        ContentCachingResponseWrapper wrapper = buffer ? new ContentCachingResponseWrapper(response) : null;
+        SqlStatementCounter.Totals totals = SqlStatementCounter.startRequest();
+        try {
+            filterChain.doFilter(request, wrapper != null ? wrapper : response);
+        } finally {
+            SqlStatementCounter.endRequest();
+        }
+
+        // Async requests (logins) finish on another thread, their totals would be incomplete
+        if (!request.isAsyncStarted()) {
+            String endpoint = endpointName(request);
+            int budget = budgets.getOrDefault(endpoint, defaultBudget);
+            if (totals.getStatements() > budget) {
+                Map.Entry<String, Integer> top = totals.getMostRepeated();
+                log.warn("SQL budget exceeded: {} ran {} statements in {} ms (budget {}); most repeated {}x: {}",
+                        endpoint, totals.getStatements(), String.format(Locale.ROOT, "%.1f", totals.getMillis()),
+                        budget, top.getValue(), top.getKey());
+            }
+            if (wrapper != null) {
+                wrapper.setHeader("X-SQL-Count", Integer.toString(totals.getStatements()));
+                wrapper.setHeader("X-SQL-Time", String.format(Locale.ROOT, "%.3f", totals.getMillis()));
+            }
+        }
+
+        if (wrapper != null) {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static String endpointName(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod handlerMethod) {
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return request.getMethod() + " " + request.getRequestURI();
+    }
+}
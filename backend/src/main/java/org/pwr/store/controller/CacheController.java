@@ -0,0 +1,40 @@
+package org.pwr.store.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.pwr.store.dto.cache.CacheStatsDTO;
+import org.pwr.store.dto.cache.SecondLevelCacheStatsDTO;
+import org.pwr.store.service.ReferenceDataCache;
+import org.pwr.store.service.SecondLevelCacheService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final ReferenceDataCache referenceDataCache;
+    private final SecondLevelCacheService secondLevelCacheService;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('KIEROWNIK')")
+    public ResponseEntity<List<CacheStatsDTO>> getStats() {
+        return ResponseEntity.ok(referenceDataCache.getStats());
+    }
+
+    @GetMapping("/second-level/stats")
+    @PreAuthorize("hasRole('KIEROWNIK')")
+    public ResponseEntity<SecondLevelCacheStatsDTO> getSecondLevelStats() {
+        return ResponseEntity.ok(secondLevelCacheService.getStats());
+    }
+
+    @DeleteMapping("/second-level/stats")
+    @PreAuthorize("hasRole('KIEROWNIK')")
+    public ResponseEntity<Void> resetSecondLevelStats() {
+        secondLevelCacheService.resetStats();
+        return ResponseEntity.noContent().build();
+    }
+}
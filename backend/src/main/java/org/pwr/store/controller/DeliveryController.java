@@ -2,6 +2,7 @@ package org.pwr.store.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.pwr.store.dto.CursorPageDTO;
 import org.pwr.store.dto.delivery.CreateDeliveryRequest;
 import org.pwr.store.dto.delivery.DeliveryDTO;
 import org.pwr.store.dto.delivery.RestockSuggestionDTO;
@@ -38,6 +39,17 @@ public class DeliveryController {
         return ResponseEntity.ok(deliveryService.getAllDeliveries(pageable));
     }
 
+    // Cursor-based listing: pass the returned nextCursor as ?after= for the next slice, no total count is computed
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyRole('KIEROWNIK', 'MAGAZYNIER')")
+    public ResponseEntity<CursorPageDTO<DeliveryDTO>> scrollDeliveries(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status) {
+
+        return ResponseEntity.ok(deliveryService.scrollDeliveries(status, after, size));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('KIEROWNIK', 'MAGAZYNIER')")
     public ResponseEntity<DeliveryDTO> getDeliveryById(@PathVariable Integer id) {
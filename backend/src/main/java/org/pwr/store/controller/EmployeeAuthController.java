@@ -12,6 +12,8 @@ import org.pwr.store.service.EmployeeAuthService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth/employee")
 @RequiredArgsConstructor
@@ -24,10 +26,10 @@ public class EmployeeAuthController {
     @Operation(summary = "Employee login", description = "Authenticate employee and receive JWT token")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login successful"),
-        @ApiResponse(responseCode = "401", description = "Invalid credentials")
+        @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+        @ApiResponse(responseCode = "503", description = "Too many concurrent logins, retry later")
     })
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = employeeAuthService.login(request);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
+        return employeeAuthService.login(request).thenApply(ResponseEntity::ok);
     }
 }
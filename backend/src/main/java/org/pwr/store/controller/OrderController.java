@@ -2,12 +2,13 @@ package org.pwr.store.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.pwr.store.dto.CursorPageDTO;
 import org.pwr.store.dto.order.CreateOrderRequest;
 import org.pwr.store.dto.order.OrderAvailabilityDTO;
 import org.pwr.store.dto.order.OrderDTO;
 import org.pwr.store.model.enums.OrderStatus;
+import org.pwr.store.security.JwtPrincipal;
 import org.pwr.store.service.OrderService;
-import org.pwr.store.util.JwtUtil;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,7 +16,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -24,7 +25,6 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
-    private final JwtUtil jwtUtil;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('KIEROWNIK', 'SPRZEDAWCA', 'MAGAZYNIER')")
@@ -51,16 +51,39 @@ public class OrderController {
     @GetMapping("/my")
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<Page<OrderDTO>> getMyOrders(
-            Authentication authentication,
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal JwtPrincipal principal,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
-        Integer customerId = extractCustomerIdFromToken(authHeader);
+        Integer customerId = principal.getUserId();
         Pageable pageable = PageRequest.of(page, size, Sort.by("orderDate").descending());
         return ResponseEntity.ok(orderService.getOrdersByCustomer(customerId, pageable));
     }
 
+    // Cursor-based listing: pass the returned nextCursor as ?after= for the next slice, no total count is computed
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyRole('KIEROWNIK', 'SPRZEDAWCA', 'MAGAZYNIER')")
+    public ResponseEntity<CursorPageDTO<OrderDTO>> scrollOrders(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer storeId) {
+
+        OrderStatus orderStatus = status != null && !status.isEmpty() ? OrderStatus.valueOf(status) : null;
+        return ResponseEntity.ok(orderService.scrollOrders(orderStatus, storeId, null, after, size));
+    }
+
+    @GetMapping("/my/scroll")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<CursorPageDTO<OrderDTO>> scrollMyOrders(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Integer customerId = principal.getUserId();
+        return ResponseEntity.ok(orderService.scrollOrders(null, null, customerId, after, size));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<OrderDTO> getOrderById(@PathVariable Integer id) {
@@ -70,11 +93,10 @@ public class OrderController {
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<OrderDTO> createOrder(
-            Authentication authentication,
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal JwtPrincipal principal,
             @Valid @RequestBody CreateOrderRequest request) {
 
-        Integer customerId = extractCustomerIdFromToken(authHeader);
+        Integer customerId = principal.getUserId();
         OrderDTO order = orderService.createOrder(customerId, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
@@ -102,9 +124,4 @@ public class OrderController {
         orderService.cancelOrder(id);
         return ResponseEntity.noContent().build();
     }
-
-    private Integer extractCustomerIdFromToken(String authHeader) {
-        String token = authHeader.substring(7); // Remove "Bearer " prefix
-        return jwtUtil.extractUserId(token);
-    }
 }
@@ -60,6 +60,17 @@ public class ProductController {
         return ResponseEntity.ok(productService.searchProducts(query, pageable));
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest products", description = "Typeahead suggestions by name or category prefix, served from memory")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved suggestions")
+    })
+    public ResponseEntity<java.util.List<ProductSuggestionDTO>> suggestProducts(
+            @Parameter(description = "Typed text, every word is matched as a prefix") @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
     @GetMapping("/category/{categoryId}")
     @Operation(summary = "Get products by category", description = "Retrieve products filtered by category")
     @ApiResponses(value = {
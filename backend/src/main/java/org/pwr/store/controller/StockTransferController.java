@@ -0,0 +1,60 @@
+package org.pwr.store.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.pwr.store.dto.transfer.StockTransferDTO;
+import org.pwr.store.service.StockTransferService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/transfers")
+@RequiredArgsConstructor
+public class StockTransferController {
+
+    private final StockTransferService stockTransferService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('KIEROWNIK', 'MAGAZYNIER')")
+    public ResponseEntity<Page<StockTransferDTO>> getAllTransfers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status) {
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return ResponseEntity.ok(stockTransferService.getTransfers(status, pageable));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('KIEROWNIK', 'MAGAZYNIER')")
+    public ResponseEntity<StockTransferDTO> getTransferById(@PathVariable Integer id) {
+        return ResponseEntity.ok(stockTransferService.getTransferById(id));
+    }
+
+    @GetMapping("/plan")
+    @PreAuthorize("hasRole('KIEROWNIK')")
+    public ResponseEntity<List<StockTransferDTO>> planTransfers() {
+        return ResponseEntity.ok(stockTransferService.planTransfers());
+    }
+
+    @PostMapping("/plan")
+    @PreAuthorize("hasRole('KIEROWNIK')")
+    public ResponseEntity<List<StockTransferDTO>> createPlannedTransfers() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockTransferService.createPlannedTransfers());
+    }
+
+    @PatchMapping("/{id}/status")
+    @PreAuthorize("hasAnyRole('KIEROWNIK', 'MAGAZYNIER')")
+    public ResponseEntity<StockTransferDTO> updateTransferStatus(
+            @PathVariable Integer id,
+            @RequestParam String status) {
+        return ResponseEntity.ok(stockTransferService.updateTransferStatus(id, status));
+    }
+}
@@ -6,6 +6,7 @@ import org.pwr.store.dto.store.CreateStoreRequest;
 import org.pwr.store.dto.store.StoreDTO;
 import org.pwr.store.dto.store.StoreInventoryDTO;
 import org.pwr.store.dto.store.UpdateStoreRequest;
+import org.pwr.store.service.ReplenishmentService;
 import org.pwr.store.service.StoreService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -24,6 +25,7 @@ import java.util.List;
 public class StoreController {
 
     private final StoreService storeService;
+    private final ReplenishmentService replenishmentService;
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
@@ -55,8 +57,28 @@ public class StoreController {
 
     @GetMapping("/{id}/inventory")
     @PreAuthorize("hasAnyRole('KIEROWNIK', 'MAGAZYNIER', 'SPRZEDAWCA')")
-    public ResponseEntity<List<StoreInventoryDTO>> getStoreInventory(@PathVariable Integer id) {
-        return ResponseEntity.ok(storeService.getStoreInventory(id));
+    public ResponseEntity<List<StoreInventoryDTO>> getStoreInventory(
+            @PathVariable Integer id,
+            @RequestParam(defaultValue = "false") boolean includeInactive) {
+        return ResponseEntity.ok(storeService.getStoreInventory(id, includeInactive));
+    }
+
+    @GetMapping("/{id}/inventory/paged")
+    @PreAuthorize("hasAnyRole('KIEROWNIK', 'MAGAZYNIER', 'SPRZEDAWCA')")
+    public ResponseEntity<Page<StoreInventoryDTO>> getStoreInventoryPage(
+            @PathVariable Integer id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean includeInactive) {
+
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(storeService.getStoreInventory(id, includeInactive, pageable));
+    }
+
+    @GetMapping("/low-stock")
+    @PreAuthorize("hasRole('KIEROWNIK')")
+    public ResponseEntity<List<org.pwr.store.dto.store.LowStockItemDTO>> getLowStockItemsForAllStores() {
+        return ResponseEntity.ok(storeService.getLowStockItemsForAllStores());
     }
 
     @GetMapping("/{id}/low-stock")
@@ -65,6 +87,20 @@ public class StoreController {
         return ResponseEntity.ok(storeService.getLowStockItems(id));
     }
 
+    @PostMapping("/replenishment")
+    @PreAuthorize("hasRole('KIEROWNIK')")
+    public ResponseEntity<org.pwr.store.dto.store.ReplenishmentRunDTO> runReplenishment() {
+        return ResponseEntity.ok(replenishmentService.runReplenishment());
+    }
+
+    @GetMapping("/replenishment/last-run")
+    @PreAuthorize("hasRole('KIEROWNIK')")
+    public ResponseEntity<org.pwr.store.dto.store.ReplenishmentRunDTO> getLastReplenishmentRun() {
+        return replenishmentService.getLastRun()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.noContent().build());
+    }
+
     @PostMapping("/{id}/auto-delivery")
     @PreAuthorize("hasAnyRole('KIEROWNIK', 'MAGAZYNIER')")
     public ResponseEntity<org.pwr.store.dto.delivery.DeliveryDTO> createAutoDelivery(@PathVariable Integer id) {
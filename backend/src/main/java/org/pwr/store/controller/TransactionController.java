@@ -2,6 +2,7 @@ package org.pwr.store.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.pwr.store.dto.CursorPageDTO;
 import org.pwr.store.dto.transaction.CreateTransactionRequest;
 import org.pwr.store.dto.transaction.TransactionDTO;
 import org.pwr.store.service.TransactionService;
@@ -47,6 +48,19 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.getAllTransactions(pageable));
     }
 
+    // Cursor-based listing: pass the returned nextCursor as ?after= for the next slice, no total count is computed
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyRole('KIEROWNIK', 'SPRZEDAWCA')")
+    public ResponseEntity<CursorPageDTO<TransactionDTO>> scrollTransactions(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Integer employeeId,
+            @RequestParam(required = false) Integer customerId,
+            @RequestParam(required = false) String documentType) {
+
+        return ResponseEntity.ok(transactionService.scrollTransactions(employeeId, customerId, documentType, after, size));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('KIEROWNIK', 'SPRZEDAWCA')")
     public ResponseEntity<TransactionDTO> getTransactionById(@PathVariable Integer id) {
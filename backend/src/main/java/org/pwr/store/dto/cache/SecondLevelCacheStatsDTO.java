@@ -0,0 +1,37 @@
+package org.pwr.store.dto.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SecondLevelCacheStatsDTO {
+    private Instant since;
+    private Long secondLevelCacheHitCount;
+    private Long secondLevelCacheMissCount;
+    private Long secondLevelCachePutCount;
+    private Double secondLevelCacheHitRate;
+    private Long queryCacheHitCount;
+    private Long queryCacheMissCount;
+    private Long queryCachePutCount;
+    private Double queryCacheHitRate;
+    private Long entityLoadCount;
+    private Long prepareStatementCount;
+    private List<RegionStats> regions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RegionStats {
+        private String region;
+        private Long hitCount;
+        private Long missCount;
+        private Long putCount;
+        private Double hitRate;
+    }
+}
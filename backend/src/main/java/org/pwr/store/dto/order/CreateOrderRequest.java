@@ -25,6 +25,9 @@ public class CreateOrderRequest {
 
     private Boolean ignoreAvailability;
 
+    // Source missing units from other stores through transfers to the pickup store
+    private Boolean allowSplit;
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
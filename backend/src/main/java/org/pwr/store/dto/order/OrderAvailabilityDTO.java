@@ -14,6 +14,18 @@ public class OrderAvailabilityDTO {
     private List<ProductAvailability> products;
     private boolean allAvailable;
     private String message;
+    // Stores the missing units can be transferred from, empty if the pickup store covers the order
+    private List<SourcingLeg> splitPlan;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SourcingLeg {
+        private Integer storeId;
+        private String storeName;
+        private String city;
+        private Map<Integer, Integer> quantities;
+    }
     
     @Data
     @NoArgsConstructor
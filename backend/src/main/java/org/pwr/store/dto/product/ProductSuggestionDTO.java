@@ -0,0 +1,14 @@
+package org.pwr.store.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestionDTO {
+    private Integer productId;
+    private String name;
+    private String categoryName;
+}
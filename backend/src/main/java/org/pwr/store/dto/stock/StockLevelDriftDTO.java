@@ -0,0 +1,16 @@
+package org.pwr.store.dto.stock;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelDriftDTO {
+    private Integer storeId;
+    private Integer productId;
+    private String status;
+    private Integer actualQty;
+    private Integer storedQty;
+}
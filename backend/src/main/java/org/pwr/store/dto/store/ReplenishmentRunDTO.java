@@ -0,0 +1,33 @@
+package org.pwr.store.dto.store;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplenishmentRunDTO {
+    private LocalDateTime startedAt;
+    private Long durationMs;
+    // Chain-wide restock queries, shared by all stores
+    private Long planningMs;
+    private Integer storesEvaluated;
+    private Integer deliveriesCreated;
+    private List<StoreTimingDTO> stores;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StoreTimingDTO {
+        private Integer storeId;
+        // Creating this store's delivery, without the wait for a database slot
+        private Long insertMs;
+        private Integer productsToRestock;
+        private Integer deliveryId;
+        private String error;
+    }
+}
@@ -0,0 +1,34 @@
+package org.pwr.store.dto.transfer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTransferDTO {
+    private Integer transferId;
+    private Integer fromStoreId;
+    private String fromStoreName;
+    private Integer toStoreId;
+    private String toStoreName;
+    private Integer orderId;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private List<TransferLineDTO> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TransferLineDTO {
+        private Integer transferLineId;
+        private Integer productId;
+        private String productName;
+        private Integer quantity;
+    }
+}
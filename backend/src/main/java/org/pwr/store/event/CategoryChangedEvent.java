@@ -0,0 +1,13 @@
+package org.pwr.store.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published whenever a category is created, renamed or deleted
+@Data
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private Integer categoryId;
+    private String name;
+    private boolean deleted;
+}
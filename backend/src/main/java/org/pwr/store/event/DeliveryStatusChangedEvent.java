@@ -0,0 +1,15 @@
+package org.pwr.store.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Published whenever a delivery is created or changes status
+@Data
+@AllArgsConstructor
+public class DeliveryStatusChangedEvent {
+    private Integer deliveryId;
+    private String status;
+    private LocalDateTime createdAt;
+}
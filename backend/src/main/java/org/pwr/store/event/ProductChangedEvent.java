@@ -0,0 +1,15 @@
+package org.pwr.store.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published whenever a product is created, updated or deleted
+@Data
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private Integer productId;
+    private String name;
+    private Integer categoryId;
+    private String categoryName;
+    private boolean deleted;
+}
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class Customer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_customer_id_seq")
+    @SequenceGenerator(name = "customers_customer_id_seq", sequenceName = "customers_customer_id_seq", allocationSize = 50)
     @Column(name = "customer_id")
     private Integer customerId;
 
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.pwr.store.model.enums.OrderStatus;
 
 import java.math.BigDecimal;
@@ -17,7 +19,8 @@ import java.time.LocalDateTime;
 public class CustomerOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customerorders_order_id_seq")
+    @SequenceGenerator(name = "customerorders_order_id_seq", sequenceName = "customerorders_order_id_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Integer orderId;
 
@@ -29,10 +32,11 @@ public class CustomerOrder {
     @JoinColumn(name = "pickup_store_id")
     private Store pickupStore;
 
-    @Column(name = "order_date")
+    @Column(name = "order_date", nullable = false)
     private LocalDateTime orderDate;
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.NAMED_ENUM)
     @Column(name = "status")
     private OrderStatus status = OrderStatus.NOWE;
 
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class Delivery {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "deliveries_delivery_id_seq")
+    @SequenceGenerator(name = "deliveries_delivery_id_seq", sequenceName = "deliveries_delivery_id_seq", allocationSize = 50)
     @Column(name = "delivery_id")
     private Integer deliveryId;
 
@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class DeliveryLine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "deliverylines_delivery_line_id_seq")
+    @SequenceGenerator(name = "deliverylines_delivery_line_id_seq", sequenceName = "deliverylines_delivery_line_id_seq", allocationSize = 50)
     @Column(name = "delivery_line_id")
     private Integer deliveryLineId;
 
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.pwr.store.model.enums.UserRole;
 
 @Entity
@@ -14,7 +16,8 @@ import org.pwr.store.model.enums.UserRole;
 public class Employee {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_employee_id_seq")
+    @SequenceGenerator(name = "employees_employee_id_seq", sequenceName = "employees_employee_id_seq", allocationSize = 50)
     @Column(name = "employee_id")
     private Integer employeeId;
 
@@ -29,6 +32,7 @@ public class Employee {
     private String lastName;
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.NAMED_ENUM)
     @Column(name = "position", nullable = false)
     private UserRole position;
 
@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class OrderLine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderlines_order_line_id_seq")
+    @SequenceGenerator(name = "orderlines_order_line_id_seq", sequenceName = "orderlines_order_line_id_seq", allocationSize = 50)
     @Column(name = "order_line_id")
     private Integer orderLineId;
 
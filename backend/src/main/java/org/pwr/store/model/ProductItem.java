@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.pwr.store.model.enums.ProductStatus;
 
 import java.time.LocalDateTime;
@@ -15,8 +17,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ProductItem {
 
+    // Units are created in bulk by SQL using the column default, so this sequence keeps an increment of 1
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productitems_item_id_seq")
+    @SequenceGenerator(name = "productitems_item_id_seq", sequenceName = "productitems_item_id_seq", allocationSize = 1)
     @Column(name = "item_id")
     private Integer itemId;
 
@@ -32,9 +36,13 @@ public class ProductItem {
     private Store store;
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.NAMED_ENUM)
     @Column(name = "current_status")
     private ProductStatus currentStatus = ProductStatus.NA_STANIE;
 
+    @Column(name = "reserved_for_order_id")
+    private Integer reservedForOrderId;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class Return {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "returns_return_id_seq")
+    @SequenceGenerator(name = "returns_return_id_seq", sequenceName = "returns_return_id_seq", allocationSize = 50)
     @Column(name = "return_id")
     private Integer returnId;
 
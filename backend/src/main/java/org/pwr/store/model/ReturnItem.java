@@ -13,7 +13,8 @@ import lombok.NoArgsConstructor;
 public class ReturnItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "returnitems_return_item_id_seq")
+    @SequenceGenerator(name = "returnitems_return_item_id_seq", sequenceName = "returnitems_return_item_id_seq", allocationSize = 50)
     @Column(name = "return_item_id")
     private Integer returnItemId;
 
@@ -0,0 +1,49 @@
+package org.pwr.store.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.pwr.store.model.enums.ProductStatus;
+
+import java.io.Serializable;
+
+// Counter row maintained by database triggers on productitems (see V4__Stock_levels.sql).
+// Read-only from the application side.
+@Entity
+@Immutable
+@Table(name = "stock_levels")
+@IdClass(StockLevel.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevel {
+
+    @Id
+    @Column(name = "store_id")
+    private Integer storeId;
+
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private ProductStatus status;
+
+    @Column(name = "qty", nullable = false)
+    private Integer qty;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Integer storeId;
+        private Integer productId;
+        private ProductStatus status;
+    }
+}
@@ -0,0 +1,50 @@
+package org.pwr.store.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stocktransfers")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stocktransfers_transfer_id_seq")
+    @SequenceGenerator(name = "stocktransfers_transfer_id_seq", sequenceName = "stocktransfers_transfer_id_seq", allocationSize = 50)
+    @Column(name = "transfer_id")
+    private Integer transferId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "from_store_id", nullable = false)
+    private Store fromStore;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "to_store_id", nullable = false)
+    private Store toStore;
+
+    // Set when the transfer is a leg of a split-fulfilment order
+    @Column(name = "order_id")
+    private Integer orderId;
+
+    @Column(name = "status", length = 20)
+    private String status = "ZAPLANOWANA";
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.pwr.store.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "stocktransferlines")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTransferLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stocktransferlines_transfer_line_id_seq")
+    @SequenceGenerator(name = "stocktransferlines_transfer_line_id_seq", sequenceName = "stocktransferlines_transfer_line_id_seq", allocationSize = 50)
+    @Column(name = "transfer_line_id")
+    private Integer transferLineId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transfer_id", nullable = false)
+    private StockTransfer transfer;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+}
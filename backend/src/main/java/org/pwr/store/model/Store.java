@@ -4,8 +4,12 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "stores")
 @Table(name = "stores")
 @Data
 @NoArgsConstructor
@@ -13,7 +17,8 @@ import lombok.NoArgsConstructor;
 public class Store {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stores_store_id_seq")
+    @SequenceGenerator(name = "stores_store_id_seq", sequenceName = "stores_store_id_seq", allocationSize = 50)
     @Column(name = "store_id")
     private Integer storeId;
 
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_transaction_id_seq")
+    @SequenceGenerator(name = "transactions_transaction_id_seq", sequenceName = "transactions_transaction_id_seq", allocationSize = 50)
     @Column(name = "transaction_id")
     private Integer transactionId;
 
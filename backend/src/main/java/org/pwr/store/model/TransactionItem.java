@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class TransactionItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactionitems_tx_item_id_seq")
+    @SequenceGenerator(name = "transactionitems_tx_item_id_seq", sequenceName = "transactionitems_tx_item_id_seq", allocationSize = 50)
     @Column(name = "tx_item_id")
     private Integer txItemId;
 
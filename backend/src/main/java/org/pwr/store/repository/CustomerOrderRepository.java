@@ -4,20 +4,31 @@ import org.pwr.store.model.CustomerOrder;
 import org.pwr.store.model.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Integer> {
     
+    // Customer and pickup store are fetch-joined so a page does not issue one SELECT per distinct customer/store
+    @Override
+    @EntityGraph(attributePaths = {"customer", "pickupStore"})
+    Page<CustomerOrder> findAll(Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"customer", "pickupStore"})
     Page<CustomerOrder> findByCustomerCustomerId(Integer customerId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"customer", "pickupStore"})
     Page<CustomerOrder> findByStatus(OrderStatus status, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"customer", "pickupStore"})
     Page<CustomerOrder> findByPickupStoreStoreId(Integer storeId, Pageable pageable);
     
     @Query("SELECT co FROM CustomerOrder co WHERE co.customer.customerId = :customerId AND co.status = :status")
@@ -29,4 +40,44 @@ public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, In
         @Param("statuses") List<OrderStatus> statuses,
         Pageable pageable
     );
+
+    // Keyset pagination, newest first: rows strictly below (afterDate, afterId); the Slice is fetched without a count.
+    // The row-value comparison is a single range on the (date, id) index
+    String KEYSET_AFTER = "(co.orderDate, co.orderId) < (:afterDate, :afterId) ";
+    String KEYSET_ORDER = "ORDER BY co.orderDate DESC, co.orderId DESC";
+
+    @EntityGraph(attributePaths = {"customer", "pickupStore"})
+    @Query("SELECT co FROM CustomerOrder co WHERE " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<CustomerOrder> findAfter(
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"customer", "pickupStore"})
+    @Query("SELECT co FROM CustomerOrder co WHERE co.status = :status AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<CustomerOrder> findByStatusAfter(
+        @Param("status") OrderStatus status,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"customer", "pickupStore"})
+    @Query("SELECT co FROM CustomerOrder co WHERE co.pickupStore.storeId = :storeId AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<CustomerOrder> findByStoreAfter(
+        @Param("storeId") Integer storeId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"customer", "pickupStore"})
+    @Query("SELECT co FROM CustomerOrder co WHERE co.customer.customerId = :customerId AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<CustomerOrder> findByCustomerAfter(
+        @Param("customerId") Integer customerId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
 }
@@ -2,7 +2,11 @@ package org.pwr.store.repository;
 
 import org.pwr.store.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -10,4 +14,10 @@ import java.util.Optional;
 public interface CustomerRepository extends JpaRepository<Customer, Integer> {
     Optional<Customer> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Compare-and-set so a concurrent password change is never overwritten by a login re-hash
+    @Modifying
+    @Transactional
+    @Query("UPDATE Customer c SET c.passwordHash = :newHash WHERE c.customerId = :id AND c.passwordHash = :oldHash")
+    int updatePasswordHash(@Param("id") Integer id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
@@ -2,8 +2,11 @@ package org.pwr.store.repository;
 
 import org.pwr.store.model.DeliveryLine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +15,21 @@ public interface DeliveryLineRepository extends JpaRepository<DeliveryLine, Inte
     List<DeliveryLine> findByDeliveryDeliveryId(Integer deliveryId);
     
     List<DeliveryLine> findByProductProductId(Integer productId);
+    
+    // Rows: storeId, productId, total quantity on deliveries in the given statuses
+    @Query("SELECT d.store.storeId, dl.product.productId, SUM(dl.quantity) FROM DeliveryLine dl " +
+           "JOIN dl.delivery d " +
+           "WHERE d.status IN :statuses AND d.store IS NOT NULL " +
+           "GROUP BY d.store.storeId, dl.product.productId")
+    List<Object[]> sumQuantityByStoreAndProduct(@Param("statuses") Collection<String> statuses);
+    
+    // Rows: productId, total quantity on the store's deliveries in the given statuses
+    @Query("SELECT dl.product.productId, SUM(dl.quantity) FROM DeliveryLine dl " +
+           "JOIN dl.delivery d " +
+           "WHERE d.store.storeId = :storeId AND d.status IN :statuses " +
+           "GROUP BY dl.product.productId")
+    List<Object[]> sumQuantityByProductForStore(
+        @Param("storeId") Integer storeId,
+        @Param("statuses") Collection<String> statuses
+    );
 }
@@ -3,11 +3,18 @@ package org.pwr.store.repository;
 import org.pwr.store.model.Delivery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DeliveryRepository extends JpaRepository<Delivery, Integer> {
@@ -19,4 +26,46 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Integer> {
     Page<Delivery> findBySupplierNameContainingIgnoreCase(String supplierName, Pageable pageable);
 
     List<Delivery> findByStatusIn(List<String> statuses);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Delivery d WHERE d.deliveryId = :id")
+    Optional<Delivery> findByIdForUpdate(@Param("id") Integer id);
+
+    // Empty when the delivery moved on or another instance is already transitioning it
+    @Query(value = "SELECT * FROM deliveries WHERE delivery_id = :id AND status = :status FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<Delivery> claimForTransition(@Param("id") Integer id, @Param("status") String status);
+
+    // Rows: delivery_id, status
+    @Query(value = "SELECT delivery_id, status FROM deliveries " +
+                   "WHERE status IN ('PRZYJETA', 'W_TRAKCIE') " +
+                   "AND ((status = 'PRZYJETA' AND created_at <= :inProgressCutoff) " +
+                   "  OR (status = 'W_TRAKCIE' AND created_at <= :completedCutoff)) " +
+                   "ORDER BY created_at LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findDueTransitions(
+        @Param("inProgressCutoff") LocalDateTime inProgressCutoff,
+        @Param("completedCutoff") LocalDateTime completedCutoff,
+        @Param("limit") int limit
+    );
+
+    // Keyset pagination, newest first: rows strictly below (afterDate, afterId); the Slice is fetched without a count.
+    // The row-value comparison is a single range on the (date, id) index
+    String KEYSET_AFTER = "(d.deliveryDate, d.deliveryId) < (:afterDate, :afterId) ";
+    String KEYSET_ORDER = "ORDER BY d.deliveryDate DESC, d.deliveryId DESC";
+
+    @Query("SELECT d FROM Delivery d WHERE " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<Delivery> findAfter(
+        @Param("afterDate") LocalDate afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
+
+    @Query("SELECT d FROM Delivery d WHERE d.status = :status AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<Delivery> findByStatusAfter(
+        @Param("status") String status,
+        @Param("afterDate") LocalDate afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
 }
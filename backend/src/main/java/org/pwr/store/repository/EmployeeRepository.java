@@ -5,9 +5,11 @@ import org.pwr.store.model.enums.UserRole;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,4 +26,10 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
     
     @Query("SELECT e FROM Employee e LEFT JOIN FETCH e.store WHERE e.employeeId IN :ids")
     List<Employee> findByIdsWithStore(@Param("ids") List<Integer> ids);
+
+    // Compare-and-set so a concurrent password change is never overwritten by a login re-hash
+    @Modifying
+    @Transactional
+    @Query("UPDATE Employee e SET e.passwordHash = :newHash WHERE e.employeeId = :id AND e.passwordHash = :oldHash")
+    int updatePasswordHash(@Param("id") Integer id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
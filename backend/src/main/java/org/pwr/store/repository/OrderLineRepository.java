@@ -1,9 +1,13 @@
 package org.pwr.store.repository;
 
 import org.pwr.store.model.OrderLine;
+import org.pwr.store.model.enums.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,5 +15,18 @@ public interface OrderLineRepository extends JpaRepository<OrderLine, Integer> {
     
     List<OrderLine> findByOrderOrderId(Integer orderId);
     
+    @Query("SELECT ol FROM OrderLine ol " +
+           "JOIN FETCH ol.product p " +
+           "LEFT JOIN FETCH p.category " +
+           "WHERE ol.order.orderId IN :orderIds")
+    List<OrderLine> findByOrderIdsWithProduct(@Param("orderIds") Collection<Integer> orderIds);
+    
+    // Rows: pickup storeId, productId, product name, total quantity ordered
+    @Query("SELECT o.pickupStore.storeId, p.productId, p.name, SUM(ol.quantity) FROM OrderLine ol " +
+           "JOIN ol.order o JOIN ol.product p " +
+           "WHERE o.status = :status " +
+           "GROUP BY o.pickupStore.storeId, p.productId, p.name")
+    List<Object[]> sumQuantityByStoreAndProduct(@Param("status") OrderStatus status);
+    
     void deleteByOrderOrderId(Integer orderId);
 }
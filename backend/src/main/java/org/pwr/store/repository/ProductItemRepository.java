@@ -1,12 +1,17 @@
 package org.pwr.store.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.pwr.store.model.ProductItem;
 import org.pwr.store.model.enums.ProductStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -42,13 +47,117 @@ public interface ProductItemRepository extends JpaRepository<ProductItem, Intege
         @Param("statuses") List<ProductStatus> statuses
     );
 
-    @Query("SELECT pi FROM ProductItem pi " +
-           "JOIN OrderLine ol ON ol.product.productId = pi.product.productId " +
-           "WHERE ol.order.orderId = :orderId " +
-           "AND pi.store.storeId = (SELECT o.pickupStore.storeId FROM CustomerOrder o WHERE o.orderId = :orderId) " +
-           "AND (pi.currentStatus = 'ZAREZERWOWANY' OR pi.currentStatus = 'OCZEKUJE_NA_ODBIOR') " +
-           "AND pi.itemId NOT IN (SELECT ti.item.itemId FROM TransactionItem ti)")
-    List<ProductItem> findReservedItemsForOrder(@Param("orderId") Integer orderId);
+    @Query("SELECT pi FROM ProductItem pi JOIN FETCH pi.product " +
+           "WHERE pi.reservedForOrderId = :orderId AND pi.currentStatus = :status")
+    List<ProductItem> findReservedForOrder(
+        @Param("orderId") Integer orderId,
+        @Param("status") ProductStatus status
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductItem pi SET pi.currentStatus = :newStatus " +
+           "WHERE pi.reservedForOrderId = :orderId AND pi.currentStatus = :status")
+    int updateReservedStatus(
+        @Param("orderId") Integer orderId,
+        @Param("status") ProductStatus status,
+        @Param("newStatus") ProductStatus newStatus
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductItem pi SET pi.currentStatus = :newStatus, pi.reservedForOrderId = null " +
+           "WHERE pi.reservedForOrderId = :orderId AND pi.currentStatus IN :statuses")
+    int releaseReservedItems(
+        @Param("orderId") Integer orderId,
+        @Param("statuses") List<ProductStatus> statuses,
+        @Param("newStatus") ProductStatus newStatus
+    );
+    
+    // Claims up to :quantity free units for the order in one statement; rows locked by concurrent reservations are skipped
+    // Native writes name their table (query spaces), otherwise Hibernate clears the whole second-level cache
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "productitems"))
+    @Query(value = "UPDATE productitems SET current_status = 'ZAREZERWOWANY', reserved_for_order_id = :orderId " +
+                   "WHERE current_status = 'NA_STANIE' AND item_id IN (" +
+                   "  SELECT item_id FROM productitems " +
+                   "  WHERE product_id = :productId AND store_id = :storeId AND current_status = 'NA_STANIE' " +
+                   "  ORDER BY item_id LIMIT :quantity FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int reserveAvailableItems(
+        @Param("orderId") Integer orderId,
+        @Param("productId") Integer productId,
+        @Param("storeId") Integer storeId,
+        @Param("quantity") int quantity
+    );
+    
+    // Materializes one NA_STANIE unit per delivered piece for every line of the delivery in a single statement.
+    // A no-op if units of this delivery already exist, so a replayed transition cannot duplicate stock.
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "productitems"))
+    @Query(value = "INSERT INTO productitems (product_id, delivery_id, store_id, current_status) " +
+                   "SELECT dl.product_id, d.delivery_id, d.store_id, CAST('NA_STANIE' AS product_status) " +
+                   "FROM deliverylines dl " +
+                   "JOIN deliveries d ON d.delivery_id = dl.delivery_id " +
+                   "CROSS JOIN LATERAL generate_series(1, dl.quantity) " +
+                   "WHERE dl.delivery_id = :deliveryId " +
+                   "AND NOT EXISTS (SELECT 1 FROM productitems pi WHERE pi.delivery_id = :deliveryId)",
+           nativeQuery = true)
+    int insertItemsForDelivery(@Param("deliveryId") Integer deliveryId);
+    
+    // Moves up to :quantity free units of a product to another store in one statement
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "productitems"))
+    @Query(value = "UPDATE productitems SET store_id = :toStoreId " +
+                   "WHERE current_status = 'NA_STANIE' AND item_id IN (" +
+                   "  SELECT item_id FROM productitems " +
+                   "  WHERE product_id = :productId AND store_id = :fromStoreId AND current_status = 'NA_STANIE' " +
+                   "  ORDER BY item_id LIMIT :quantity FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int transferAvailableItems(
+        @Param("fromStoreId") Integer fromStoreId,
+        @Param("toStoreId") Integer toStoreId,
+        @Param("productId") Integer productId,
+        @Param("quantity") int quantity
+    );
+    
+    // Moves up to :quantity units an order holds in the source store (its transfer leg); they stay reserved for the order
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "productitems"))
+    @Query(value = "UPDATE productitems SET store_id = :toStoreId " +
+                   "WHERE item_id IN (" +
+                   "  SELECT item_id FROM productitems " +
+                   "  WHERE reserved_for_order_id = :orderId AND product_id = :productId AND store_id = :fromStoreId " +
+                   "  AND current_status = 'ZAREZERWOWANY' " +
+                   "  ORDER BY item_id LIMIT :quantity FOR UPDATE)",
+           nativeQuery = true)
+    int transferReservedItems(
+        @Param("orderId") Integer orderId,
+        @Param("fromStoreId") Integer fromStoreId,
+        @Param("toStoreId") Integer toStoreId,
+        @Param("productId") Integer productId,
+        @Param("quantity") int quantity
+    );
+    
+    // Gives back the units an order holds in one store (a cancelled transfer leg)
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "productitems"))
+    @Query(value = "UPDATE productitems SET current_status = 'NA_STANIE', reserved_for_order_id = NULL " +
+                   "WHERE reserved_for_order_id = :orderId AND store_id = :storeId AND product_id IN (:productIds) " +
+                   "AND current_status = 'ZAREZERWOWANY'",
+           nativeQuery = true)
+    int releaseReservedItemsInStore(
+        @Param("orderId") Integer orderId,
+        @Param("storeId") Integer storeId,
+        @Param("productIds") Collection<Integer> productIds
+    );
+    
+    // Rows: productId, number of units already reserved for the order
+    @Query("SELECT pi.product.productId, COUNT(pi) FROM ProductItem pi " +
+           "WHERE pi.reservedForOrderId = :orderId AND pi.currentStatus = :status " +
+           "GROUP BY pi.product.productId")
+    List<Object[]> countReservedForOrderByProduct(
+        @Param("orderId") Integer orderId,
+        @Param("status") ProductStatus status
+    );
     
     long countByProductProductIdAndStoreStoreIdAndCurrentStatus(
         Integer productId, 
@@ -15,9 +15,18 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     
     Page<Product> findByCategoryCategoryId(Integer categoryId, Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%'))")
+    // Matches whole words in name/description (GIN on search_vector), substrings of the name and
+    // misspelled names (trigram GIN on LOWER(name)); best full-text rank first, then closest name
+    String SEARCH_FROM = "FROM products p " +
+            "WHERE p.search_vector @@ websearch_to_tsquery('simple', :search) " +
+            "OR LOWER(p.name) LIKE CONCAT('%', LOWER(:search), '%') " +
+            "OR LOWER(p.name) % LOWER(:search) ";
+
+    @Query(value = "SELECT p.* " + SEARCH_FROM +
+                   "ORDER BY ts_rank(p.search_vector, websearch_to_tsquery('simple', :search)) DESC, " +
+                   "similarity(LOWER(p.name), LOWER(:search)) DESC, p.product_id",
+           countQuery = "SELECT COUNT(*) " + SEARCH_FROM,
+           nativeQuery = true)
     Page<Product> searchProducts(@Param("search") String search, Pageable pageable);
     
     List<Product> findByCategoryCategoryId(Integer categoryId);
@@ -0,0 +1,148 @@
+package org.pwr.store.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.pwr.store.dto.store.LowStockItemDTO;
+import org.pwr.store.dto.store.StoreInventoryDTO;
+import org.pwr.store.model.StockLevel;
+import org.pwr.store.model.enums.ProductStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockLevelRepository extends JpaRepository<StockLevel, StockLevel.Key> {
+
+    @Query("SELECT COALESCE(SUM(sl.qty), 0) FROM StockLevel sl " +
+           "WHERE sl.productId = :productId AND sl.storeId = :storeId AND sl.status = :status")
+    long countByProductAndStoreAndStatus(
+        @Param("productId") Integer productId,
+        @Param("storeId") Integer storeId,
+        @Param("status") ProductStatus status
+    );
+
+    @Query("SELECT sl.storeId, SUM(sl.qty) FROM StockLevel sl " +
+           "WHERE sl.productId = :productId AND sl.status IN :statuses " +
+           "GROUP BY sl.storeId HAVING SUM(sl.qty) > 0")
+    List<Object[]> countAvailableByStore(
+        @Param("productId") Integer productId,
+        @Param("statuses") List<ProductStatus> statuses
+    );
+
+    // Rows: storeId, productId, qty
+    @Query("SELECT sl.storeId, sl.productId, SUM(sl.qty) FROM StockLevel sl " +
+           "WHERE sl.storeId IN :storeIds AND sl.productId IN :productIds AND sl.status = :status " +
+           "GROUP BY sl.storeId, sl.productId")
+    List<Object[]> countByStoresAndProducts(
+        @Param("storeIds") Collection<Integer> storeIds,
+        @Param("productIds") Collection<Integer> productIds,
+        @Param("status") ProductStatus status
+    );
+
+    // Rows: storeId, productId, qty - every store holding any of the products
+    @Query("SELECT sl.storeId, sl.productId, SUM(sl.qty) FROM StockLevel sl " +
+           "WHERE sl.productId IN :productIds AND sl.status IN :statuses " +
+           "GROUP BY sl.storeId, sl.productId HAVING SUM(sl.qty) > 0")
+    List<Object[]> countByProducts(
+        @Param("productIds") Collection<Integer> productIds,
+        @Param("statuses") Collection<ProductStatus> statuses
+    );
+
+    String INVENTORY_SELECT = "SELECT new org.pwr.store.dto.store.StoreInventoryDTO(" +
+            "p.productId, p.name, c.name, " +
+            "CAST(SUM(CASE WHEN sl.status = org.pwr.store.model.enums.ProductStatus.NA_STANIE THEN sl.qty ELSE 0 END) AS Integer), " +
+            "CAST(SUM(CASE WHEN sl.status = org.pwr.store.model.enums.ProductStatus.NA_EKSPOZYCJI THEN sl.qty ELSE 0 END) AS Integer), " +
+            "CAST(SUM(CASE WHEN sl.status IN (org.pwr.store.model.enums.ProductStatus.ZAREZERWOWANY, " +
+            "org.pwr.store.model.enums.ProductStatus.OCZEKUJE_NA_ODBIOR) THEN sl.qty ELSE 0 END) AS Integer), " +
+            "CAST(SUM(sl.qty) AS Integer)) " +
+            "FROM StockLevel sl " +
+            "JOIN Product p ON p.productId = sl.productId " +
+            "LEFT JOIN p.category c " +
+            "WHERE sl.storeId = :storeId AND sl.status IN :statuses " +
+            "GROUP BY p.productId, p.name, c.name " +
+            "HAVING SUM(sl.qty) > 0 " +
+            "ORDER BY p.name";
+
+    // One row per product with the status counts already aggregated
+    @Query(INVENTORY_SELECT)
+    List<StoreInventoryDTO> findInventoryByStore(
+        @Param("storeId") Integer storeId,
+        @Param("statuses") Collection<ProductStatus> statuses
+    );
+
+    @Query(value = INVENTORY_SELECT,
+           countQuery = "SELECT COUNT(DISTINCT sl.productId) FROM StockLevel sl " +
+                        "WHERE sl.storeId = :storeId AND sl.status IN :statuses AND sl.qty > 0")
+    Page<StoreInventoryDTO> findInventoryPageByStore(
+        @Param("storeId") Integer storeId,
+        @Param("statuses") Collection<ProductStatus> statuses,
+        Pageable pageable
+    );
+
+    String LOW_STOCK_SELECT = "SELECT new org.pwr.store.dto.store.LowStockItemDTO(" +
+            "p.productId, p.name, s.storeId, CONCAT(s.address, ', ', s.city), " +
+            "CAST(COALESCE(sl.qty, 0) AS Integer), p.lowStockThreshold, p.minimumStock, " +
+            "CAST(p.minimumStock - COALESCE(sl.qty, 0) AS Integer)) " +
+            "FROM Store s CROSS JOIN Product p " +
+            "LEFT JOIN StockLevel sl ON sl.storeId = s.storeId AND sl.productId = p.productId " +
+            "AND sl.status = org.pwr.store.model.enums.ProductStatus.NA_STANIE " +
+            "WHERE COALESCE(sl.qty, 0) < p.lowStockThreshold " +
+            "AND p.minimumStock - COALESCE(sl.qty, 0) > 0 ";
+
+    // Products below their low-stock threshold in one store, with the quantity needed to reach minimum stock
+    @Query(LOW_STOCK_SELECT + "AND s.storeId = :storeId ORDER BY p.productId")
+    List<LowStockItemDTO> findLowStockByStore(@Param("storeId") Integer storeId);
+
+    // Chain-wide variant for the replenishment run
+    @Query(LOW_STOCK_SELECT + "ORDER BY s.storeId, p.productId")
+    List<LowStockItemDTO> findLowStockForAllStores();
+
+    // Rows: storeId, productId, units on stock above the product's minimum stock
+    @Query("SELECT sl.storeId, sl.productId, sl.qty - p.minimumStock FROM StockLevel sl " +
+           "JOIN Product p ON p.productId = sl.productId " +
+           "WHERE sl.status = org.pwr.store.model.enums.ProductStatus.NA_STANIE AND sl.qty > p.minimumStock")
+    List<Object[]> findSurplusForAllStores();
+
+    @Query("SELECT COALESCE(SUM(sl.qty), 0) FROM StockLevel sl WHERE sl.storeId = :storeId")
+    long countByStore(@Param("storeId") Integer storeId);
+
+    // Blocks concurrent trigger updates so that the recount and the counters see the same state
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stock_levels"))
+    @Query(value = "LOCK TABLE stock_levels IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForReconciliation();
+
+    // Rows: store_id, product_id, status, actual qty (from productitems), stored qty
+    @Query(value = "SELECT COALESCE(a.store_id, s.store_id), COALESCE(a.product_id, s.product_id), " +
+                   "COALESCE(a.status, s.status), COALESCE(a.qty, 0), COALESCE(s.qty, 0) " +
+                   "FROM (SELECT store_id, product_id, CAST(current_status AS text) AS status, COUNT(*) AS qty " +
+                   "      FROM productitems " +
+                   "      WHERE store_id IS NOT NULL AND product_id IS NOT NULL AND current_status IS NOT NULL " +
+                   "      GROUP BY store_id, product_id, current_status) a " +
+                   "FULL OUTER JOIN stock_levels s " +
+                   "ON s.store_id = a.store_id AND s.product_id = a.product_id AND s.status = a.status " +
+                   "WHERE COALESCE(a.qty, 0) <> COALESCE(s.qty, 0)",
+           nativeQuery = true)
+    List<Object[]> findDrift();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stock_levels"))
+    @Query(value = "INSERT INTO stock_levels (store_id, product_id, status, qty) " +
+                   "VALUES (:storeId, :productId, :status, :qty) " +
+                   "ON CONFLICT (store_id, product_id, status) DO UPDATE SET qty = EXCLUDED.qty",
+           nativeQuery = true)
+    int overwrite(
+        @Param("storeId") Integer storeId,
+        @Param("productId") Integer productId,
+        @Param("status") String status,
+        @Param("qty") Integer qty
+    );
+}
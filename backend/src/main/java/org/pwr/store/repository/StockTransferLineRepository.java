@@ -0,0 +1,26 @@
+package org.pwr.store.repository;
+
+import org.pwr.store.model.StockTransferLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockTransferLineRepository extends JpaRepository<StockTransferLine, Integer> {
+
+    @Query("SELECT l FROM StockTransferLine l JOIN FETCH l.product " +
+           "WHERE l.transfer.transferId IN :transferIds ORDER BY l.transfer.transferId, l.transferLineId")
+    List<StockTransferLine> findByTransferIdsWithProduct(@Param("transferIds") Collection<Integer> transferIds);
+
+    // Rows: fromStoreId, toStoreId, productId, quantity
+    // Order legs are left out: their units are already reserved for the order and no longer count as stock
+    @Query("SELECT t.fromStore.storeId, t.toStore.storeId, l.product.productId, SUM(l.quantity) " +
+           "FROM StockTransferLine l JOIN l.transfer t " +
+           "WHERE t.status = :status AND t.orderId IS NULL " +
+           "GROUP BY t.fromStore.storeId, t.toStore.storeId, l.product.productId")
+    List<Object[]> sumQuantityByStoresAndProduct(@Param("status") String status);
+}
@@ -0,0 +1,39 @@
+package org.pwr.store.repository;
+
+import jakarta.persistence.LockModeType;
+import org.pwr.store.model.StockTransfer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StockTransferRepository extends JpaRepository<StockTransfer, Integer> {
+
+    @EntityGraph(attributePaths = {"fromStore", "toStore"})
+    Page<StockTransfer> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"fromStore", "toStore"})
+    Page<StockTransfer> findByStatus(String status, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM StockTransfer t WHERE t.transferId = :id")
+    Optional<StockTransfer> findByIdForUpdate(@Param("id") Integer id);
+
+    boolean existsByOrderIdAndStatus(Integer orderId, String status);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StockTransfer t SET t.status = :newStatus WHERE t.orderId = :orderId AND t.status = :status")
+    int updateStatusForOrder(
+        @Param("orderId") Integer orderId,
+        @Param("status") String status,
+        @Param("newStatus") String newStatus
+    );
+}
@@ -2,8 +2,11 @@ package org.pwr.store.repository;
 
 import org.pwr.store.model.TransactionItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -12,4 +15,15 @@ public interface TransactionItemRepository extends JpaRepository<TransactionItem
     List<TransactionItem> findByTransactionTransactionId(Integer transactionId);
     
     List<TransactionItem> findByItemItemId(Integer itemId);
+    
+    // Rows: store_id, product_id, sale day, units sold - for demand forecasting
+    @Query(value = "SELECT pi.store_id, pi.product_id, CAST(t.transaction_date AS date) AS sale_day, COUNT(*) " +
+                   "FROM transactionitems ti " +
+                   "JOIN transactions t ON t.transaction_id = ti.transaction_id " +
+                   "JOIN productitems pi ON pi.item_id = ti.item_id " +
+                   "WHERE t.transaction_date >= :from AND t.transaction_date < :to " +
+                   "AND pi.store_id IS NOT NULL AND pi.product_id IS NOT NULL " +
+                   "GROUP BY pi.store_id, pi.product_id, CAST(t.transaction_date AS date)",
+           nativeQuery = true)
+    List<Object[]> sumDailySales(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
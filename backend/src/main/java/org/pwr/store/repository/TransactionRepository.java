@@ -3,7 +3,11 @@ package org.pwr.store.repository;
 import org.pwr.store.model.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -21,4 +25,44 @@ public interface TransactionRepository extends JpaRepository<Transaction, Intege
     Page<Transaction> findByDocumentType(String documentType, Pageable pageable);
     
     List<Transaction> findByTransactionDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    // Keyset pagination, newest first: rows strictly below (afterDate, afterId); the Slice is fetched without a count.
+    // The row-value comparison is a single range on the (date, id) index
+    String KEYSET_AFTER = "(t.transactionDate, t.transactionId) < (:afterDate, :afterId) ";
+    String KEYSET_ORDER = "ORDER BY t.transactionDate DESC, t.transactionId DESC";
+
+    @EntityGraph(attributePaths = {"employee", "customer"})
+    @Query("SELECT t FROM Transaction t WHERE " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<Transaction> findAfter(
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"employee", "customer"})
+    @Query("SELECT t FROM Transaction t WHERE t.employee.employeeId = :employeeId AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<Transaction> findByEmployeeAfter(
+        @Param("employeeId") Integer employeeId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"employee", "customer"})
+    @Query("SELECT t FROM Transaction t WHERE t.customer.customerId = :customerId AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<Transaction> findByCustomerAfter(
+        @Param("customerId") Integer customerId,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"employee", "customer"})
+    @Query("SELECT t FROM Transaction t WHERE t.documentType = :documentType AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<Transaction> findByDocumentTypeAfter(
+        @Param("documentType") String documentType,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Integer afterId,
+        Pageable pageable
+    );
 }
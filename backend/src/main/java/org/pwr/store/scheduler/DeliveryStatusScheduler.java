@@ -1,67 +1,173 @@
 package org.pwr.store.scheduler;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.event.DeliveryStatusChangedEvent;
 import org.pwr.store.model.Delivery;
 import org.pwr.store.repository.DeliveryRepository;
 import org.pwr.store.service.DeliveryService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Drives the PRZYJETA -> W_TRAKCIE -> ZREALIZOWANA progression of deliveries.
+ * Only deliveries with a transition ahead are kept in memory, in a delay queue ordered by due time;
+ * the worker thread sleeps until the earliest one is due.
+ * With several instances each transition is claimed in the database (FOR UPDATE SKIP LOCKED).
+ * The queue is the driver; a rare database sweep (every few minutes) is only a safety net for deliveries
+ * created on another instance that stopped before applying them, so it is not a polling loop.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DeliveryStatusScheduler {
 
+    // Each stage lasts 5 seconds, counted from delivery creation
+    private static final long IN_PROGRESS_AFTER_SECONDS = 5;
+    private static final long COMPLETED_AFTER_SECONDS = 10;
+    private static final int SWEEP_BATCH_SIZE = 100;
+
     private final DeliveryRepository deliveryRepository;
     private final DeliveryService deliveryService;
 
-    // Runs every 2 seconds
-    @Scheduled(fixedRate = 2000)
-    @Transactional
-    public void updateDeliveryStatuses() {
-        LocalDateTime now = LocalDateTime.now();
-        
-        // Find only deliveries that are not in final status
-        List<Delivery> deliveries = deliveryRepository.findAll().stream()
-                .filter(d -> !"ZREALIZOWANA".equals(d.getStatus()) && !"ANULOWANA".equals(d.getStatus()))
-                .toList();
-        
-        if (deliveries.isEmpty()) {
-            return;
+    private final DelayQueue<DueTransition> queue = new DelayQueue<>();
+    private volatile Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<Delivery> openDeliveries = deliveryRepository.findByStatusIn(Arrays.asList("PRZYJETA", "W_TRAKCIE"));
+        for (Delivery delivery : openDeliveries) {
+            schedule(delivery.getDeliveryId(), delivery.getStatus(), delivery.getCreatedAt());
         }
-        
-        for (Delivery delivery : deliveries) {
-            if (delivery.getCreatedAt() == null) {
-                continue;
+        log.info("Delivery scheduler started with {} pending transitions", queue.size());
+
+        worker = Thread.ofPlatform()
+                .name("delivery-status-scheduler")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeliveryStatusChanged(DeliveryStatusChangedEvent event) {
+        schedule(event.getDeliveryId(), event.getStatus(), event.getCreatedAt());
+    }
+
+    // Safety net only: catches overdue transitions nobody applied (e.g. their instance went down)
+    @Scheduled(initialDelayString = "${app.deliveries.sweep-interval-ms:600000}",
+               fixedDelayString = "${app.deliveries.sweep-interval-ms:600000}")
+    public void sweepDueDeliveries() {
+        List<Object[]> due;
+        int applied;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            due = deliveryRepository.findDueTransitions(
+                    now.minusSeconds(IN_PROGRESS_AFTER_SECONDS),
+                    now.minusSeconds(COMPLETED_AFTER_SECONDS),
+                    SWEEP_BATCH_SIZE);
+
+            applied = 0;
+            for (Object[] row : due) {
+                Integer deliveryId = ((Number) row[0]).intValue();
+                String status = (String) row[1];
+                String nextStatus = "PRZYJETA".equals(status) ? "W_TRAKCIE" : "ZREALIZOWANA";
+                if (apply(new DueTransition(deliveryId, status, nextStatus, System.currentTimeMillis()))) {
+                    applied++;
+                }
             }
-            
-            long secondsSinceCreation = java.time.Duration.between(delivery.getCreatedAt(), now).getSeconds();
-            String currentStatus = delivery.getStatus();
-            String newStatus = null;
-            
-            // Status progression: PRZYJETA -> W_TRAKCIE -> ZREALIZOWANA
-            // Each stage lasts 5 seconds
-            if ("PRZYJETA".equals(currentStatus) && secondsSinceCreation >= 5) {
-                newStatus = "W_TRAKCIE";
-            } else if ("W_TRAKCIE".equals(currentStatus) && secondsSinceCreation >= 10) {
-                newStatus = "ZREALIZOWANA";
+            // Another full batch only while this one made progress (failing rows would come back forever)
+        } while (due.size() == SWEEP_BATCH_SIZE && applied > 0);
+    }
+
+    private void schedule(Integer deliveryId, String status, LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return;
+        }
+
+        String nextStatus;
+        long afterSeconds;
+        if ("PRZYJETA".equals(status)) {
+            nextStatus = "W_TRAKCIE";
+            afterSeconds = IN_PROGRESS_AFTER_SECONDS;
+        } else if ("W_TRAKCIE".equals(status)) {
+            nextStatus = "ZREALIZOWANA";
+            afterSeconds = COMPLETED_AFTER_SECONDS;
+        } else {
+            return; // Final status, nothing to schedule
+        }
+
+        long dueAt = createdAt.plusSeconds(afterSeconds).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        queue.put(new DueTransition(deliveryId, status, nextStatus, dueAt));
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            DueTransition transition;
+            try {
+                transition = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             }
-            
-            if (newStatus != null && !newStatus.equals(currentStatus)) {
-                // Use service method to update status (triggers product item creation)
-                try {
-                    deliveryService.updateDeliveryStatus(delivery.getDeliveryId(), newStatus);
-                    log.info("Updated delivery {} status from {} to {}", 
-                        delivery.getDeliveryId(), currentStatus, newStatus);
-                } catch (Exception e) {
-                    log.error("Failed to update delivery {} status: {}", delivery.getDeliveryId(), e.getMessage());
-                }
+
+            apply(transition);
+        }
+    }
+
+    private boolean apply(DueTransition transition) {
+        // The delivery may have been changed manually or by another instance; the service ignores stale transitions
+        try {
+            if (deliveryService.advanceDeliveryStatus(
+                    transition.deliveryId, transition.fromStatus, transition.toStatus)) {
+                log.info("Updated delivery {} status from {} to {}",
+                        transition.deliveryId, transition.fromStatus, transition.toStatus);
+                return true;
             }
+        } catch (Exception e) {
+            log.error("Failed to update delivery {} status: {}", transition.deliveryId, e.getMessage());
+        }
+        return false;
+    }
+
+    private static final class DueTransition implements Delayed {
+        private final Integer deliveryId;
+        private final String fromStatus;
+        private final String toStatus;
+        private final long dueAtMillis;
+
+        private DueTransition(Integer deliveryId, String fromStatus, String toStatus, long dueAtMillis) {
+            this.deliveryId = deliveryId;
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+            this.dueAtMillis = dueAtMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((DueTransition) other).dueAtMillis);
         }
     }
 }
@@ -0,0 +1,33 @@
+package org.pwr.store.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.service.DemandForecastService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DemandForecastScheduler {
+
+    private final DemandForecastService demandForecastService;
+
+    // Loads the full history window once on startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadForecasts() {
+        refreshForecasts();
+    }
+
+    // Folds in the previous day's sales
+    @Scheduled(cron = "${app.forecast.refresh-cron:0 15 2 * * *}")
+    public void refreshForecasts() {
+        try {
+            demandForecastService.refresh();
+        } catch (Exception e) {
+            log.error("Failed to refresh demand forecasts: {}", e.getMessage());
+        }
+    }
+}
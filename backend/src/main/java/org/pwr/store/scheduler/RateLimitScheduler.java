@@ -0,0 +1,24 @@
+package org.pwr.store.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.security.RateLimiter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitScheduler {
+
+    private final RateLimiter rateLimiter;
+
+    // Forgets clients that have been idle long enough for their bucket to be full again
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        int removed = rateLimiter.evictIdle();
+        if (removed > 0) {
+            log.debug("Evicted {} idle rate limit buckets, {} remain", removed, rateLimiter.size());
+        }
+    }
+}
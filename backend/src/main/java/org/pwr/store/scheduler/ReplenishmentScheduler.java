@@ -0,0 +1,25 @@
+package org.pwr.store.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.service.ReplenishmentService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReplenishmentScheduler {
+
+    private final ReplenishmentService replenishmentService;
+
+    // Runs nightly by default, after the demand forecasts were refreshed
+    @Scheduled(cron = "${app.replenishment.cron:0 0 4 * * *}")
+    public void replenishAllStores() {
+        try {
+            replenishmentService.runReplenishment();
+        } catch (Exception e) {
+            log.error("Failed to run replenishment: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.pwr.store.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.dto.stock.StockLevelDriftDTO;
+import org.pwr.store.service.StockLevelService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockLevelReconciliationScheduler {
+
+    private final StockLevelService stockLevelService;
+
+    // Runs nightly by default
+    @Scheduled(cron = "${app.stock-levels.reconcile-cron:0 30 3 * * *}")
+    public void reconcileStockLevels() {
+        try {
+            List<StockLevelDriftDTO> drift = stockLevelService.reconcile();
+            if (drift.isEmpty()) {
+                log.info("Stock levels reconciled, no drift found");
+            } else {
+                log.warn("Stock levels reconciled, corrected {} drifted counters", drift.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to reconcile stock levels: {}", e.getMessage());
+        }
+    }
+}
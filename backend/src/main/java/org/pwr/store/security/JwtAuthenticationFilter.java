@@ -7,14 +7,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.pwr.store.util.JwtUtil;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 
 @Component
 @RequiredArgsConstructor
@@ -32,21 +30,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
             
             try {
-                String username = jwtUtil.extractUsername(token);
-                String userType = jwtUtil.extractUserType(token);
-                String role = jwtUtil.extractRole(token);
-                
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    if (jwtUtil.validateToken(token, username)) {
-                        SimpleGrantedAuthority authority = role != null 
-                            ? new SimpleGrantedAuthority("ROLE_" + role)
-                            : new SimpleGrantedAuthority("ROLE_" + userType);
-                        
+                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    // One verification per token (cached), all claims come from the principal
+                    JwtPrincipal principal = jwtUtil.parseToken(token);
+
+                    if (principal.getUsername() != null && !principal.isExpired()) {
                         UsernamePasswordAuthenticationToken authToken = 
                             new UsernamePasswordAuthenticationToken(
-                                username, 
+                                principal, 
                                 null, 
-                                Collections.singletonList(authority)
+                                principal.getAuthorities()
                             );
                         
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
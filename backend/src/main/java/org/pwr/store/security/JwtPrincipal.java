@@ -0,0 +1,35 @@
+package org.pwr.store.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+// All claims of a verified token, parsed once; available as @AuthenticationPrincipal
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal implements Principal {
+    private final String username;
+    private final String userType;
+    private final String role;
+    private final Integer userId;
+    private final Instant expiresAt;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + (role != null ? role : userType)));
+    }
+}
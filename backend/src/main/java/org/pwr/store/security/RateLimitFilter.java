@@ -0,0 +1,79 @@
+package org.pwr.store.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Admission control per client (JWT principal, else remote address); runs right after JwtAuthenticationFilter
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+            "{\"status\":429,\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter rateLimiter;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !enabled || !path.startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        long waitNanos = rateLimiter.tryAcquire(groupOf(request.getRequestURI()), clientKey(request));
+        if (waitNanos > 0) {
+            // Answered here, before any controller or database work
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+            response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static RateLimiter.Group groupOf(String path) {
+        if (path.startsWith("/api/auth/")) {
+            return RateLimiter.Group.AUTH;
+        }
+        if (path.startsWith("/api/products") || path.startsWith("/api/categories")) {
+            return RateLimiter.Group.CATALOG;
+        }
+        return RateLimiter.Group.API;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return principal.getUserId() != null
+                    ? principal.getUserType() + ":" + principal.getUserId()
+                    : principal.getUserType() + ":" + principal.getUsername();
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,116 @@
+package org.pwr.store.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets per client and route group.
+ * Each bucket is a single AtomicLong holding its theoretical arrival time (GCRA): taking a token is one
+ * CAS, no locks and no allocation on the hot path. Buckets live in striped maps so that the idle sweep
+ * and heavy insert traffic from many new clients do not contend on a single table.
+ */
+@Component
+public class RateLimiter {
+
+    private static final int STRIPES = 64;
+
+    public enum Group { AUTH, CATALOG, API }
+
+    private final Limit[] limits = new Limit[Group.values().length];
+    private final long idleNanos;
+
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${app.rate-limit.auth.capacity:100}") int authCapacity,
+                       @Value("${app.rate-limit.auth.refill-per-second:10}") double authRefill,
+                       @Value("${app.rate-limit.catalog.capacity:100}") int catalogCapacity,
+                       @Value("${app.rate-limit.catalog.refill-per-second:50}") double catalogRefill,
+                       @Value("${app.rate-limit.api.capacity:60}") int apiCapacity,
+                       @Value("${app.rate-limit.api.refill-per-second:20}") double apiRefill,
+                       @Value("${app.rate-limit.idle-timeout-ms:600000}") long idleTimeoutMs) {
+        limits[Group.AUTH.ordinal()] = new Limit(Group.AUTH, authCapacity, authRefill, meterRegistry);
+        limits[Group.CATALOG.ordinal()] = new Limit(Group.CATALOG, catalogCapacity, catalogRefill, meterRegistry);
+        limits[Group.API.ordinal()] = new Limit(Group.API, apiCapacity, apiRefill, meterRegistry);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+    }
+
+    /**
+     * Takes one token for the client. Returns 0 when the request is admitted, otherwise the number of
+     * nanoseconds until a token becomes available.
+     */
+    public long tryAcquire(Group group, String clientKey) {
+        Limit limit = limits[group.ordinal()];
+        long now = System.nanoTime();
+        // A new bucket starts full: its arrival time is now
+        AtomicLong bucket = limit.stripe(clientKey).computeIfAbsent(clientKey, k -> new AtomicLong(now));
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = (tat - now < 0 ? now : tat) + limit.interval;
+            long wait = newTat - now - limit.burst;
+            if (wait > 0) {
+                limit.rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    // Drops buckets that have been full for longer than the idle timeout; returns how many were removed
+    public int evictIdle() {
+        long cutoff = System.nanoTime() - idleNanos;
+        int removed = 0;
+        for (Limit limit : limits) {
+            for (Map<String, AtomicLong> stripe : limit.stripes) {
+                int before = stripe.size();
+                stripe.values().removeIf(bucket -> bucket.get() - cutoff < 0);
+                removed += before - stripe.size();
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Limit limit : limits) {
+            for (Map<String, AtomicLong> stripe : limit.stripes) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Limit {
+        // Nanoseconds per token and how far ahead of now the arrival time may run (capacity tokens)
+        final long interval;
+        final long burst;
+        final Counter rejected;
+        final List<Map<String, AtomicLong>> stripes = new ArrayList<>(STRIPES);
+
+        Limit(Group group, int capacity, double refillPerSecond, MeterRegistry meterRegistry) {
+            this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.burst = interval * capacity;
+            this.rejected = Counter.builder("http.rate-limit.rejected")
+                    .tag("group", group.name().toLowerCase())
+                    .register(meterRegistry);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes.add(new ConcurrentHashMap<>());
+            }
+        }
+
+        Map<String, AtomicLong> stripe(String key) {
+            int hash = key.hashCode();
+            return stripes.get((hash ^ (hash >>> 16)) & (STRIPES - 1));
+        }
+    }
+}
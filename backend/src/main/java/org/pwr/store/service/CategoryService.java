@@ -3,10 +3,12 @@ package org.pwr.store.service;
 import lombok.RequiredArgsConstructor;
 import org.pwr.store.dto.category.CategoryDTO;
 import org.pwr.store.dto.category.CreateCategoryRequest;
+import org.pwr.store.event.CategoryChangedEvent;
 import org.pwr.store.exception.ResourceAlreadyExistsException;
 import org.pwr.store.exception.ResourceNotFoundException;
 import org.pwr.store.model.Category;
 import org.pwr.store.repository.CategoryRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +20,8 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<CategoryDTO> getAllCategories() {
         return categoryRepository.findAll().stream()
@@ -26,7 +30,7 @@ public class CategoryService {
     }
 
     public CategoryDTO getCategoryById(Integer id) {
-        Category category = categoryRepository.findById(id)
+        Category category = referenceDataCache.findCategory(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
         return toDTO(category);
     }
@@ -55,6 +59,8 @@ public class CategoryService {
 
         category.setName(request.getName());
         category = categoryRepository.save(category);
+        referenceDataCache.evictCategory(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getCategoryId(), category.getName(), false));
         return toDTO(category);
     }
 
@@ -64,6 +70,8 @@ public class CategoryService {
             throw new ResourceNotFoundException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        referenceDataCache.evictCategory(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, null, true));
     }
 
     private CategoryDTO toDTO(Category category) {
@@ -9,16 +9,17 @@ import org.pwr.store.exception.ResourceAlreadyExistsException;
 import org.pwr.store.model.Customer;
 import org.pwr.store.repository.CustomerRepository;
 import org.pwr.store.util.JwtUtil;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class CustomerAuthService {
 
     private final CustomerRepository customerRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
 
     @Transactional
@@ -32,7 +33,7 @@ public class CustomerAuthService {
         customer.setLastName(request.getLastName());
         customer.setEmail(request.getEmail());
         customer.setPhoneNumber(request.getPhoneNumber());
-        customer.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        customer.setPasswordHash(passwordHashingService.encode(request.getPassword()));
 
         customer = customerRepository.save(customer);
 
@@ -41,16 +42,24 @@ public class CustomerAuthService {
         return new AuthResponse(token, "CUSTOMER", customer.getEmail(), null, null);
     }
 
-    public AuthResponse login(LoginRequest request) {
+    // Completes on the password hashing pool, the servlet thread is released while BCrypt runs
+    public CompletableFuture<AuthResponse> login(LoginRequest request) {
         Customer customer = customerRepository.findByEmail(request.getUsername())
                 .orElseThrow(() -> new AuthenticationException("Invalid credentials"));
 
-        if (!passwordEncoder.matches(request.getPassword(), customer.getPasswordHash())) {
-            throw new AuthenticationException("Invalid credentials");
-        }
+        return passwordHashingService.verify(request.getPassword(), customer.getPasswordHash())
+                .thenApply(verification -> {
+                    if (!verification.isMatched()) {
+                        throw new AuthenticationException("Invalid credentials");
+                    }
+                    if (verification.getUpgradedHash() != null) {
+                        customerRepository.updatePasswordHash(customer.getCustomerId(),
+                                customer.getPasswordHash(), verification.getUpgradedHash());
+                    }
 
-        String token = jwtUtil.generateTokenWithId(customer.getEmail(), "CUSTOMER", null, customer.getCustomerId());
+                    String token = jwtUtil.generateTokenWithId(customer.getEmail(), "CUSTOMER", null, customer.getCustomerId());
 
-        return new AuthResponse(token, "CUSTOMER", customer.getEmail(), null, null);
+                    return new AuthResponse(token, "CUSTOMER", customer.getEmail(), null, null);
+                });
     }
 }
@@ -1,16 +1,22 @@
 package org.pwr.store.service;
 
 import lombok.RequiredArgsConstructor;
+import org.pwr.store.dto.CursorPageDTO;
 import org.pwr.store.dto.delivery.CreateDeliveryRequest;
 import org.pwr.store.dto.delivery.DeliveryDTO;
 import org.pwr.store.dto.delivery.RestockSuggestionDTO;
+import org.pwr.store.event.DeliveryStatusChangedEvent;
 import org.pwr.store.exception.ResourceNotFoundException;
 import org.pwr.store.model.*;
 import org.pwr.store.model.enums.OrderStatus;
 import org.pwr.store.model.enums.ProductStatus;
 import org.pwr.store.repository.*;
+import org.pwr.store.util.KeysetCursor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,9 +34,11 @@ public class DeliveryService {
     private final DeliveryLineRepository deliveryLineRepository;
     private final ProductRepository productRepository;
     private final ProductItemRepository productItemRepository;
+    private final StockLevelRepository stockLevelRepository;
     private final StoreRepository storeRepository;
-    private final CustomerOrderRepository orderRepository;
     private final OrderLineRepository orderLineRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<DeliveryDTO> getAllDeliveries(Pageable pageable) {
         return deliveryRepository.findAll(pageable).map(this::toDTO);
@@ -40,6 +48,25 @@ public class DeliveryService {
         return deliveryRepository.findByStatus(status, pageable).map(this::toDTO);
     }
 
+    // Keyset-paginated variant of the delivery list
+    public CursorPageDTO<DeliveryDTO> scrollDeliveries(String status, String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Pageable limit = PageRequest.of(0, KeysetCursor.clampSize(size));
+
+        Slice<Delivery> deliveries = status != null && !status.isEmpty()
+                ? deliveryRepository.findByStatusAfter(status, cursor.getDate(), cursor.getId(), limit)
+                : deliveryRepository.findAfter(cursor.getDate(), cursor.getId(), limit);
+
+        List<Delivery> content = deliveries.getContent();
+        String nextCursor = null;
+        if (deliveries.hasNext()) {
+            Delivery last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getDeliveryDate(), last.getDeliveryId());
+        }
+        return new CursorPageDTO<>(content.stream().map(this::toDTO).collect(Collectors.toList()),
+                content.size(), deliveries.hasNext(), nextCursor);
+    }
+
     public DeliveryDTO getDeliveryById(Integer id) {
         Delivery delivery = deliveryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + id));
@@ -79,12 +106,16 @@ public class DeliveryService {
             deliveryLineRepository.save(line);
         }
 
+        eventPublisher.publishEvent(new DeliveryStatusChangedEvent(
+                delivery.getDeliveryId(), delivery.getStatus(), delivery.getCreatedAt()));
+
         return toDTO(delivery);
     }
 
     @Transactional
     public DeliveryDTO updateDeliveryStatus(Integer id, String status) {
-        Delivery delivery = deliveryRepository.findById(id)
+        // Row lock serializes concurrent transitions of the same delivery (manual and scheduled, any instance)
+        Delivery delivery = deliveryRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + id));
 
         String oldStatus = delivery.getStatus();
@@ -97,110 +128,92 @@ public class DeliveryService {
                 throw new IllegalStateException("Cannot complete delivery without assigned store");
             }
 
-            List<DeliveryLine> lines = deliveryLineRepository.findByDeliveryDeliveryId(delivery.getDeliveryId());
-
-            for (DeliveryLine line : lines) {
-                // Create product items for each quantity in the delivery line
-                for (int i = 0; i < line.getQuantity(); i++) {
-                    ProductItem item = new ProductItem();
-                    item.setProduct(line.getProduct());
-                    item.setDeliveryId(delivery.getDeliveryId());
-                    item.setStore(delivery.getStore());
-                    item.setCurrentStatus(ProductStatus.NA_STANIE);
-                    productItemRepository.save(item);
-                }
-            }
+            // Create product items for each quantity in the delivery lines (one INSERT ... SELECT)
+            productItemRepository.insertItemsForDelivery(delivery.getDeliveryId());
         }
 
+        eventPublisher.publishEvent(new DeliveryStatusChangedEvent(
+                delivery.getDeliveryId(), delivery.getStatus(), delivery.getCreatedAt()));
+
         return toDTO(delivery);
     }
 
+    // Applies a scheduled transition only if the delivery is still in the expected status
+    // and no other instance holds it (FOR UPDATE SKIP LOCKED)
+    @Transactional
+    public boolean advanceDeliveryStatus(Integer id, String expectedStatus, String newStatus) {
+        if (deliveryRepository.claimForTransition(id, expectedStatus).isEmpty()) {
+            return false;
+        }
+        updateDeliveryStatus(id, newStatus);
+        return true;
+    }
+
     @Transactional(readOnly = true)
     public List<RestockSuggestionDTO> getRestockSuggestions() {
-        // Find all active orders (NOWE) which are waiting for processing
-        List<CustomerOrder> activeOrders = orderRepository.findAll().stream()
-                .filter(o -> o.getStatus() == OrderStatus.NOWE)
-                .collect(Collectors.toList());
-
+        // Open demand: quantities on NOWE orders per pickup store and product
         // Map<StoreId, Map<ProductId, quantityNeeded>>
-        java.util.Map<Integer, java.util.Map<Integer, Integer>> storeRequirements = new java.util.HashMap<>();
-
-        for (CustomerOrder order : activeOrders) {
-            List<OrderLine> lines = orderLineRepository.findByOrderOrderId(order.getOrderId());
-            for (OrderLine line : lines) {
-                storeRequirements
-                        .computeIfAbsent(order.getPickupStore().getStoreId(), k -> new java.util.HashMap<>())
-                        .merge(line.getProduct().getProductId(), line.getQuantity(), Integer::sum);
-            }
+        java.util.Map<Integer, java.util.Map<Integer, Integer>> storeRequirements = new java.util.TreeMap<>();
+        java.util.Map<Integer, String> productNames = new java.util.HashMap<>();
+
+        for (Object[] row : orderLineRepository.sumQuantityByStoreAndProduct(OrderStatus.NOWE)) {
+            Integer storeId = (Integer) row[0];
+            Integer productId = (Integer) row[1];
+            productNames.put(productId, (String) row[2]);
+            storeRequirements
+                    .computeIfAbsent(storeId, k -> new java.util.TreeMap<>())
+                    .put(productId, ((Number) row[3]).intValue());
         }
 
-        // Fetch pending deliveries (PRZYJETA or W_TRAKCIE)
-        List<Delivery> pendingDeliveries = deliveryRepository
-                .findByStatusIn(java.util.Arrays.asList("PRZYJETA", "W_TRAKCIE"));
-
-        // Map<StoreId, Map<ProductId, quantityPending>>
-        java.util.Map<Integer, java.util.Map<Integer, Integer>> pendingStock = new java.util.HashMap<>();
+        if (storeRequirements.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        for (Delivery delivery : pendingDeliveries) {
-            if (delivery.getStore() == null)
-                continue;
-            Integer storeId = delivery.getStore().getStoreId();
+        // Pending supply: quantities on deliveries still on the way (PRZYJETA or W_TRAKCIE)
+        // Map<"storeId:productId", quantityPending>
+        java.util.Map<String, Integer> pendingStock = new java.util.HashMap<>();
+        for (Object[] row : deliveryLineRepository.sumQuantityByStoreAndProduct(
+                java.util.Arrays.asList("PRZYJETA", "W_TRAKCIE"))) {
+            pendingStock.put(row[0] + ":" + row[1], ((Number) row[2]).intValue());
+        }
 
-            List<DeliveryLine> lines = deliveryLineRepository.findByDeliveryDeliveryId(delivery.getDeliveryId());
-            for (DeliveryLine line : lines) {
-                pendingStock
-                        .computeIfAbsent(storeId, k -> new java.util.HashMap<>())
-                        .merge(line.getProduct().getProductId(), line.getQuantity(), Integer::sum);
-            }
+        // On hand: NA_STANIE counters for every demanded store/product pair
+        // Map<"storeId:productId", currentStock>
+        java.util.Set<Integer> productIds = productNames.keySet();
+        java.util.Map<String, Long> currentStocks = new java.util.HashMap<>();
+        for (Object[] row : stockLevelRepository.countByStoresAndProducts(
+                storeRequirements.keySet(), productIds, ProductStatus.NA_STANIE)) {
+            currentStocks.put(row[0] + ":" + row[1], (Long) row[2]);
         }
 
+        java.util.Map<Integer, Store> stores = referenceDataCache.findStores(storeRequirements.keySet());
+
         List<RestockSuggestionDTO> suggestions = new ArrayList<>();
 
         for (java.util.Map.Entry<Integer, java.util.Map<Integer, Integer>> storeEntry : storeRequirements.entrySet()) {
             Integer storeId = storeEntry.getKey();
-            java.util.Map<Integer, Integer> productRequirements = storeEntry.getValue();
-
-            Store store = storeRepository.findById(storeId).orElse(null);
+            Store store = stores.get(storeId);
             if (store == null)
                 continue;
 
             List<RestockSuggestionDTO.ProductRequest> neededProducts = new ArrayList<>();
 
-            for (java.util.Map.Entry<Integer, Integer> productEntry : productRequirements.entrySet()) {
+            for (java.util.Map.Entry<Integer, Integer> productEntry : storeEntry.getValue().entrySet()) {
                 Integer productId = productEntry.getKey();
                 Integer quantityNeeded = productEntry.getValue();
+                String key = storeId + ":" + productId;
 
-                // Check active pending deliveries for this store and product
-                Integer quantityPending = pendingStock.getOrDefault(storeId, new java.util.HashMap<>())
-                        .getOrDefault(productId, 0);
-
-                // If we have enough coming in pending deliveries, reduce the needed amount
-                int netNeeded = quantityNeeded - quantityPending;
-
-                if (netNeeded <= 0)
-                    continue; // Needs fully covered by pending deliveries
-
-                // Check current stock
-                long currentStock = productItemRepository.countByProductProductIdAndStoreStoreIdAndCurrentStatus(
-                        productId, storeId, ProductStatus.NA_STANIE);
-
-                // Effective needed is netNeeded (orders - pending) - currentStock
-                // Wait, logic check:
-                // Total Needed = Orders
-                // Covered = Pending + Current
-                // Deficit = Total Needed - (Pending + Current)
-
+                // Deficit = Orders - (Pending + Current)
+                int quantityPending = pendingStock.getOrDefault(key, 0);
+                long currentStock = currentStocks.getOrDefault(key, 0L);
                 int deficit = quantityNeeded - (quantityPending + (int) currentStock);
 
                 if (deficit > 0) {
-                    Product product = productRepository.findById(productId).orElse(null);
-                    if (product != null) {
-                        neededProducts.add(new RestockSuggestionDTO.ProductRequest(
-                                productId,
-                                product.getName(),
-                                deficit,
-                                (int) currentStock));
-                    }
+                    neededProducts.add(new RestockSuggestionDTO.ProductRequest(
+                            productId,
+                            productNames.get(productId),
+                            deficit,
+                            (int) currentStock));
                 }
             }
 
@@ -0,0 +1,271 @@
+package org.pwr.store.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.model.enums.ProductStatus;
+import org.pwr.store.repository.DeliveryLineRepository;
+import org.pwr.store.repository.StockLevelRepository;
+import org.pwr.store.repository.TransactionItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Per store/product daily demand forecasts built from sales history.
+ * Each pair keeps a sliding window of daily sales in a primitive array plus an exponentially
+ * smoothed level; a daily refresh only reads the days since the last refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DemandForecastService {
+
+    private static final int HISTORY_DAYS = 56;
+    private static final int PARALLEL_THRESHOLD = 1024;
+    // ~95% service level for the safety stock
+    private static final double SAFETY_FACTOR = 1.65;
+
+    private final TransactionItemRepository transactionItemRepository;
+    private final StockLevelRepository stockLevelRepository;
+    private final DeliveryLineRepository deliveryLineRepository;
+
+    @Value("${app.forecast.smoothing:0.3}")
+    private double smoothing;
+
+    @Value("${app.forecast.lead-time-days:3}")
+    private int leadTimeDays;
+
+    @Value("${app.forecast.review-days:7}")
+    private int reviewDays;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Brings forecasts up to yesterday. The first call reads the full history window,
+     * later calls only the days that were not processed yet.
+     */
+    public synchronized void refresh() {
+        LocalDate lastCompleteDay = LocalDate.now().minusDays(1);
+        Snapshot current = snapshot;
+
+        LocalDate from = current.lastDay == null
+                ? lastCompleteDay.minusDays(HISTORY_DAYS - 1)
+                : current.lastDay.plusDays(1);
+        if (from.isAfter(lastCompleteDay)) {
+            return;
+        }
+        int newDays = (int) (lastCompleteDay.toEpochDay() - from.toEpochDay()) + 1;
+
+        // Sales of the new days: pair key -> units per new day
+        Map<Long, double[]> newSales = new HashMap<>();
+        for (Object[] row : transactionItemRepository.sumDailySales(
+                from.atStartOfDay(), lastCompleteDay.plusDays(1).atStartOfDay())) {
+            long key = pairKey(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            LocalDate day = row[2] instanceof LocalDate localDate ? localDate : ((java.sql.Date) row[2]).toLocalDate();
+            newSales.computeIfAbsent(key, k -> new double[newDays])
+                    [(int) (day.toEpochDay() - from.toEpochDay())] += ((Number) row[3]).doubleValue();
+        }
+
+        // Existing pairs keep their row, pairs seen for the first time are appended
+        Map<Long, Integer> index = new HashMap<>(current.index);
+        List<Long> keys = new ArrayList<>(Arrays.asList(current.keys));
+        for (Long key : newSales.keySet()) {
+            if (!index.containsKey(key)) {
+                index.put(key, keys.size());
+                keys.add(key);
+            }
+        }
+
+        int rows = keys.size();
+        double[][] history = Arrays.copyOf(current.history, rows);
+        double[] level = Arrays.copyOf(current.level, rows);
+        double[] deviation = Arrays.copyOf(current.deviation, rows);
+        double[][] incoming = new double[rows][];
+        for (int row = 0; row < rows; row++) {
+            incoming[row] = newSales.get(keys.get(row));
+            if (history[row] == null) {
+                history[row] = new double[HISTORY_DAYS];
+                level[row] = Double.NaN;
+            }
+        }
+
+        ForkJoinPool.commonPool().invoke(new UpdateTask(history, level, deviation, incoming, newDays, smoothing, 0, rows));
+
+        snapshot = new Snapshot(lastCompleteDay, index, keys.toArray(new Long[0]), history, level, deviation);
+        log.info("Demand forecasts refreshed up to {} ({} new days, {} store/product pairs)", lastCompleteDay, newDays, rows);
+    }
+
+    /**
+     * Expected units sold per day for a product in a store, 0 when it has no sales history.
+     */
+    public double getDailyForecast(Integer storeId, Integer productId) {
+        Snapshot current = snapshot;
+        Integer row = current.index.get(pairKey(storeId, productId));
+        return row == null || Double.isNaN(current.level[row]) ? 0 : current.level[row];
+    }
+
+    /**
+     * Reorder quantities for products whose forecast demand until the next delivery plus safety stock
+     * exceeds what the store has on stock and on the way.
+     */
+    public Map<Integer, Integer> suggestReorderQuantities(Integer storeId) {
+        return reorderQuantities(storeId).getOrDefault(storeId, new HashMap<>());
+    }
+
+    /**
+     * Chain-wide variant for the replenishment run, keyed by store: the same queries, run once for every store.
+     */
+    public Map<Integer, Map<Integer, Integer>> suggestReorderQuantitiesForAllStores() {
+        return reorderQuantities(null);
+    }
+
+    // Map<StoreId, Map<ProductId, quantity>>, for one store or (onlyStoreId == null) for all of them
+    private Map<Integer, Map<Integer, Integer>> reorderQuantities(Integer onlyStoreId) {
+        Snapshot current = snapshot;
+        int coverDays = leadTimeDays + reviewDays;
+
+        // Target stock per store/product pair
+        Map<Long, Integer> targets = new HashMap<>();
+        Set<Integer> storeIds = new HashSet<>();
+        Set<Integer> productIds = new HashSet<>();
+        for (int row = 0; row < current.keys.length; row++) {
+            long key = current.keys[row];
+            int storeId = (int) (key >>> 32);
+            if ((onlyStoreId != null && storeId != onlyStoreId)
+                    || Double.isNaN(current.level[row]) || current.level[row] <= 0) {
+                continue;
+            }
+            double safetyStock = SAFETY_FACTOR * current.deviation[row] * Math.sqrt(leadTimeDays);
+            targets.put(key, (int) Math.ceil(current.level[row] * coverDays + safetyStock));
+            storeIds.add(storeId);
+            productIds.add((int) key);
+        }
+
+        if (targets.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Map<Long, Integer> covered = new HashMap<>();
+        for (Object[] row : stockLevelRepository.countByStoresAndProducts(
+                storeIds, productIds, ProductStatus.NA_STANIE)) {
+            covered.merge(pairKey((Integer) row[0], (Integer) row[1]), ((Number) row[2]).intValue(), Integer::sum);
+        }
+        List<String> openStatuses = Arrays.asList("PRZYJETA", "W_TRAKCIE");
+        if (onlyStoreId != null) {
+            for (Object[] row : deliveryLineRepository.sumQuantityByProductForStore(onlyStoreId, openStatuses)) {
+                covered.merge(pairKey(onlyStoreId, (Integer) row[0]), ((Number) row[1]).intValue(), Integer::sum);
+            }
+        } else {
+            for (Object[] row : deliveryLineRepository.sumQuantityByStoreAndProduct(openStatuses)) {
+                covered.merge(pairKey((Integer) row[0], (Integer) row[1]), ((Number) row[2]).intValue(), Integer::sum);
+            }
+        }
+
+        Map<Integer, Map<Integer, Integer>> quantities = new HashMap<>();
+        for (Map.Entry<Long, Integer> target : targets.entrySet()) {
+            int quantity = target.getValue() - covered.getOrDefault(target.getKey(), 0);
+            if (quantity > 0) {
+                long key = target.getKey();
+                quantities.computeIfAbsent((int) (key >>> 32), k -> new HashMap<>()).put((int) key, quantity);
+            }
+        }
+        return quantities;
+    }
+
+    private static long pairKey(int storeId, int productId) {
+        return ((long) storeId << 32) | (productId & 0xffffffffL);
+    }
+
+    // Slides each pair's window by the new days and updates its smoothed level and deviation
+    @SuppressWarnings("serial")
+    private static final class UpdateTask extends RecursiveAction {
+        private final double[][] history;
+        private final double[] level;
+        private final double[] deviation;
+        private final double[][] incoming;
+        private final int newDays;
+        private final double alpha;
+        private final int from;
+        private final int to;
+
+        private UpdateTask(double[][] history, double[] level, double[] deviation, double[][] incoming,
+                           int newDays, double alpha, int from, int to) {
+            this.history = history;
+            this.level = level;
+            this.deviation = deviation;
+            this.incoming = incoming;
+            this.newDays = newDays;
+            this.alpha = alpha;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                        new UpdateTask(history, level, deviation, incoming, newDays, alpha, from, mid),
+                        new UpdateTask(history, level, deviation, incoming, newDays, alpha, mid, to));
+                return;
+            }
+
+            for (int row = from; row < to; row++) {
+                // History is copied before being shifted so the previous snapshot stays untouched
+                double[] window = new double[HISTORY_DAYS];
+                int keep = Math.max(0, HISTORY_DAYS - newDays);
+                System.arraycopy(history[row], HISTORY_DAYS - keep, window, 0, keep);
+
+                double smoothed = level[row];
+                for (int day = 0; day < newDays; day++) {
+                    double sold = incoming[row] == null ? 0 : incoming[row][day];
+                    int slot = keep + day - Math.max(0, newDays - HISTORY_DAYS);
+                    if (slot >= 0) {
+                        window[slot] = sold;
+                    }
+                    smoothed = Double.isNaN(smoothed) ? sold : alpha * sold + (1 - alpha) * smoothed;
+                }
+
+                double mean = 0;
+                for (double sold : window) {
+                    mean += sold;
+                }
+                mean /= HISTORY_DAYS;
+                double variance = 0;
+                for (double sold : window) {
+                    variance += (sold - mean) * (sold - mean);
+                }
+
+                history[row] = window;
+                level[row] = smoothed;
+                deviation[row] = Math.sqrt(variance / HISTORY_DAYS);
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(null, Collections.emptyMap(), new Long[0],
+                new double[0][], new double[0], new double[0]);
+
+        final LocalDate lastDay;
+        final Map<Long, Integer> index;
+        final Long[] keys;
+        final double[][] history;
+        final double[] level;
+        final double[] deviation;
+
+        Snapshot(LocalDate lastDay, Map<Long, Integer> index, Long[] keys,
+                 double[][] history, double[] level, double[] deviation) {
+            this.lastDay = lastDay;
+            this.index = index;
+            this.keys = keys;
+            this.history = history;
+            this.level = level;
+            this.deviation = deviation;
+        }
+    }
+}
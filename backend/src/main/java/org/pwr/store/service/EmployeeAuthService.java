@@ -7,18 +7,20 @@ import org.pwr.store.exception.AuthenticationException;
 import org.pwr.store.model.Employee;
 import org.pwr.store.repository.EmployeeRepository;
 import org.pwr.store.util.JwtUtil;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class EmployeeAuthService {
 
     private final EmployeeRepository employeeRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
 
-    public AuthResponse login(LoginRequest request) {
+    // Completes on the password hashing pool, the servlet thread is released while BCrypt runs
+    public CompletableFuture<AuthResponse> login(LoginRequest request) {
         Employee employee = employeeRepository.findByLogin(request.getUsername())
                 .orElseThrow(() -> new AuthenticationException("Invalid credentials"));
 
@@ -26,24 +28,31 @@ public class EmployeeAuthService {
             throw new AuthenticationException("Employee account is inactive");
         }
 
-        if (!passwordEncoder.matches(request.getPassword(), employee.getPasswordHash())) {
-            throw new AuthenticationException("Invalid credentials");
-        }
-
-        String token = jwtUtil.generateToken(
-                employee.getLogin(),
-                "EMPLOYEE",
-                employee.getPosition().name()
-        );
-
-        Integer storeId = employee.getStore() != null ? employee.getStore().getStoreId() : null;
-
-        return new AuthResponse(
-                token,
-                "EMPLOYEE",
-                employee.getLogin(),
-                employee.getPosition().name(),
-                storeId
-        );
+        return passwordHashingService.verify(request.getPassword(), employee.getPasswordHash())
+                .thenApply(verification -> {
+                    if (!verification.isMatched()) {
+                        throw new AuthenticationException("Invalid credentials");
+                    }
+                    if (verification.getUpgradedHash() != null) {
+                        employeeRepository.updatePasswordHash(employee.getEmployeeId(),
+                                employee.getPasswordHash(), verification.getUpgradedHash());
+                    }
+
+                    String token = jwtUtil.generateToken(
+                            employee.getLogin(),
+                            "EMPLOYEE",
+                            employee.getPosition().name()
+                    );
+
+                    Integer storeId = employee.getStore() != null ? employee.getStore().getStoreId() : null;
+
+                    return new AuthResponse(
+                            token,
+                            "EMPLOYEE",
+                            employee.getLogin(),
+                            employee.getPosition().name(),
+                            storeId
+                    );
+                });
     }
 }
@@ -13,7 +13,6 @@ import org.pwr.store.repository.EmployeeRepository;
 import org.pwr.store.repository.StoreRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,7 +25,7 @@ public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
     private final StoreRepository storeRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     @Transactional(readOnly = true)
     public Page<EmployeeDTO> getAllEmployees(Pageable pageable) {
@@ -83,7 +82,7 @@ public class EmployeeService {
         employee.setLastName(request.getLastName());
         employee.setPosition(position);
         employee.setLogin(request.getLogin());
-        employee.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        employee.setPasswordHash(passwordHashingService.encode(request.getPassword()));
         employee.setIsActive(true);
 
         employee = employeeRepository.save(employee);
@@ -1,6 +1,7 @@
 package org.pwr.store.service;
 
 import lombok.RequiredArgsConstructor;
+import org.pwr.store.dto.CursorPageDTO;
 import org.pwr.store.dto.order.CreateOrderRequest;
 import org.pwr.store.dto.order.OrderAvailabilityDTO;
 import org.pwr.store.dto.order.OrderDTO;
@@ -9,8 +10,12 @@ import org.pwr.store.model.*;
 import org.pwr.store.model.enums.OrderStatus;
 import org.pwr.store.model.enums.ProductStatus;
 import org.pwr.store.repository.*;
+import org.pwr.store.util.KeysetCursor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,27 +30,55 @@ public class OrderService {
 
     private final CustomerOrderRepository orderRepository;
     private final OrderLineRepository orderLineRepository;
-    private final ProductRepository productRepository;
     private final ProductItemRepository productItemRepository;
-    private final StoreRepository storeRepository;
+    private final StockLevelRepository stockLevelRepository;
     private final CustomerRepository customerRepository;
     private final TransactionRepository transactionRepository;
     private final TransactionItemRepository transactionItemRepository;
+    private final OrderSourcingService orderSourcingService;
+    private final StockTransferService stockTransferService;
+    private final ReferenceDataCache referenceDataCache;
 
     public Page<OrderDTO> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable).map(this::toDTO);
+        return toDTOPage(orderRepository.findAll(pageable));
     }
 
     public Page<OrderDTO> getOrdersByCustomer(Integer customerId, Pageable pageable) {
-        return orderRepository.findByCustomerCustomerId(customerId, pageable).map(this::toDTO);
+        return toDTOPage(orderRepository.findByCustomerCustomerId(customerId, pageable));
     }
 
     public Page<OrderDTO> getOrdersByStatus(OrderStatus status, Pageable pageable) {
-        return orderRepository.findByStatus(status, pageable).map(this::toDTO);
+        return toDTOPage(orderRepository.findByStatus(status, pageable));
     }
 
     public Page<OrderDTO> getOrdersByStore(Integer storeId, Pageable pageable) {
-        return orderRepository.findByPickupStoreStoreId(storeId, pageable).map(this::toDTO);
+        return toDTOPage(orderRepository.findByPickupStoreStoreId(storeId, pageable));
+    }
+
+    // Keyset-paginated variant of the order lists; filters are applied in the same precedence as the paged endpoint
+    public CursorPageDTO<OrderDTO> scrollOrders(OrderStatus status, Integer storeId, Integer customerId,
+                                                String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Pageable limit = PageRequest.of(0, KeysetCursor.clampSize(size));
+
+        Slice<CustomerOrder> orders;
+        if (customerId != null) {
+            orders = orderRepository.findByCustomerAfter(customerId, cursor.getDateTime(), cursor.getId(), limit);
+        } else if (status != null) {
+            orders = orderRepository.findByStatusAfter(status, cursor.getDateTime(), cursor.getId(), limit);
+        } else if (storeId != null) {
+            orders = orderRepository.findByStoreAfter(storeId, cursor.getDateTime(), cursor.getId(), limit);
+        } else {
+            orders = orderRepository.findAfter(cursor.getDateTime(), cursor.getId(), limit);
+        }
+
+        List<CustomerOrder> content = orders.getContent();
+        String nextCursor = null;
+        if (orders.hasNext()) {
+            CustomerOrder last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getOrderDate(), last.getOrderId());
+        }
+        return new CursorPageDTO<>(toDTOs(content), content.size(), orders.hasNext(), nextCursor);
     }
 
     public OrderDTO getOrderById(Integer id) {
@@ -59,30 +92,48 @@ public class OrderService {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
 
-        Store pickupStore = storeRepository.findById(request.getPickupStoreId())
+        Store pickupStore = referenceDataCache.findStore(request.getPickupStoreId())
                 .orElseThrow(
                         () -> new ResourceNotFoundException("Store not found with id: " + request.getPickupStoreId()));
 
+        // Requested quantity per product, products from the reference cache (misses loaded in one query)
+        Map<Integer, Integer> requested = new LinkedHashMap<>();
+        for (CreateOrderRequest.OrderLineRequest lineReq : request.getLines()) {
+            requested.merge(lineReq.getProductId(), lineReq.getQuantity(), Integer::sum);
+        }
+        Map<Integer, Product> products = referenceDataCache.findProducts(requested.keySet());
+        for (Integer productId : requested.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+        }
+
         // Validate product availability in pickup store BEFORE creating order
+        Map<Integer, Map<Integer, Integer>> transferLegs = Collections.emptyMap();
         if (!Boolean.TRUE.equals(request.getIgnoreAvailability())) {
-            for (CreateOrderRequest.OrderLineRequest lineReq : request.getLines()) {
-                Product product = productRepository.findById(lineReq.getProductId())
-                        .orElseThrow(() -> new ResourceNotFoundException(
-                                "Product not found with id: " + lineReq.getProductId()));
+            OrderSourcingService.SourcingPlan plan = orderSourcingService.planSourcing(
+                    request.getPickupStoreId(), requested);
 
-                List<ProductItem> availableItems = productItemRepository.findAvailableItemsInStore(
-                        lineReq.getProductId(),
-                        request.getPickupStoreId(),
-                        ProductStatus.NA_STANIE);
-
-                if (availableItems.size() < lineReq.getQuantity()) {
+            for (Map.Entry<Integer, Integer> entry : requested.entrySet()) {
+                int availableCount = plan.getAvailableInPickupStore().get(entry.getKey());
+                if (availableCount >= entry.getValue()) {
+                    continue;
+                }
+                Product product = products.get(entry.getKey());
+                if (!Boolean.TRUE.equals(request.getAllowSplit())) {
                     throw new IllegalStateException(
                             "Insufficient inventory for product '" + product.getName() +
-                                    "' in selected store. Available: " + availableItems.size() +
-                                    ", Requested: " + lineReq.getQuantity() +
+                                    "' in selected store. Available: " + availableCount +
+                                    ", Requested: " + entry.getValue() +
                                     ". Please select a different store.");
                 }
+                if (!plan.isFeasible()) {
+                    throw new IllegalStateException(
+                            "Insufficient inventory for product '" + product.getName() +
+                                    "' across all stores. Requested: " + entry.getValue());
+                }
             }
+            transferLegs = plan.getTransferLegs();
         }
 
         // Create order
@@ -97,9 +148,7 @@ public class OrderService {
         // Create order lines and calculate total
         BigDecimal total = BigDecimal.ZERO;
         for (CreateOrderRequest.OrderLineRequest lineReq : request.getLines()) {
-            Product product = productRepository.findById(lineReq.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Product not found with id: " + lineReq.getProductId()));
+            Product product = products.get(lineReq.getProductId());
 
             OrderLine line = new OrderLine();
             line.setOrder(order);
@@ -112,6 +161,11 @@ public class OrderService {
             total = total.add(lineTotal);
         }
 
+        // Missing units are moved to the pickup store before the order is reserved there
+        if (!transferLegs.isEmpty()) {
+            stockTransferService.createOrderTransfers(order.getOrderId(), pickupStore.getStoreId(), transferLegs);
+        }
+
         // Update total
         order.setTotalAmount(total);
         order = orderRepository.save(order);
@@ -129,6 +183,13 @@ public class OrderService {
         OrderStatus oldStatus = order.getStatus();
         System.out.println("Old status: " + oldStatus + " -> New status: " + newStatus);
 
+        // Units of a split order are reserved in the pickup store only once every transfer leg has arrived
+        if ((newStatus == OrderStatus.W_REALIZACJI || newStatus == OrderStatus.GOTOWE_DO_ODBIORU)
+                && stockTransferService.hasPendingOrderTransfers(id)) {
+            throw new IllegalStateException(
+                    "Order #" + id + " is waiting for stock transfers to its pickup store");
+        }
+
         // Handle status transitions
         if (newStatus == OrderStatus.W_REALIZACJI && oldStatus == OrderStatus.NOWE) {
             // Reserve items when starting order processing
@@ -185,25 +246,30 @@ public class OrderService {
     private void reserveItemsForOrder(CustomerOrder order) {
         List<OrderLine> lines = orderLineRepository.findByOrderOrderId(order.getOrderId());
 
-        for (OrderLine line : lines) {
-            List<ProductItem> availableItems = productItemRepository.findAvailableItemsInStore(
-                    line.getProduct().getProductId(),
-                    order.getPickupStore().getStoreId(),
-                    ProductStatus.NA_STANIE);
-
-            int quantityNeeded = line.getQuantity();
-            int reserved = 0;
-
-            for (ProductItem item : availableItems) {
-                if (reserved >= quantityNeeded)
-                    break;
+        // Units brought in by transfer legs are already reserved for the order
+        Map<Integer, Integer> alreadyReserved = new HashMap<>();
+        for (Object[] row : productItemRepository.countReservedForOrderByProduct(
+                order.getOrderId(), ProductStatus.ZAREZERWOWANY)) {
+            alreadyReserved.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
 
-                item.setCurrentStatus(ProductStatus.ZAREZERWOWANY);
-                productItemRepository.save(item);
-                reserved++;
+        for (OrderLine line : lines) {
+            Integer productId = line.getProduct().getProductId();
+            int covered = Math.min(alreadyReserved.getOrDefault(productId, 0), line.getQuantity());
+            alreadyReserved.merge(productId, -covered, Integer::sum);
+            int missing = line.getQuantity() - covered;
+            if (missing == 0) {
+                continue;
             }
 
-            if (reserved < quantityNeeded) {
+            int reserved = productItemRepository.reserveAvailableItems(
+                    order.getOrderId(),
+                    productId,
+                    order.getPickupStore().getStoreId(),
+                    missing);
+
+            // Not enough free units - the exception rolls back units already claimed for this order
+            if (reserved < missing) {
                 throw new IllegalStateException(
                         "Not enough items available for product: " + line.getProduct().getName());
             }
@@ -211,14 +277,10 @@ public class OrderService {
     }
 
     private void markItemsReadyForPickup(CustomerOrder order) {
-        List<ProductItem> reservedItems = productItemRepository.findReservedItemsForOrder(order.getOrderId());
-
-        for (ProductItem item : reservedItems) {
-            if (item.getCurrentStatus() == ProductStatus.ZAREZERWOWANY) {
-                item.setCurrentStatus(ProductStatus.OCZEKUJE_NA_ODBIOR);
-                productItemRepository.save(item);
-            }
-        }
+        productItemRepository.updateReservedStatus(
+                order.getOrderId(),
+                ProductStatus.ZAREZERWOWANY,
+                ProductStatus.OCZEKUJE_NA_ODBIOR);
     }
 
     private void createTransactionForOrder(CustomerOrder order) {
@@ -229,7 +291,8 @@ public class OrderService {
         System.out.println("Creating transaction for order: " + order.getOrderId());
 
         // Mark items as sold first
-        List<ProductItem> itemsToSell = productItemRepository.findReservedItemsForOrder(order.getOrderId());
+        List<ProductItem> itemsToSell = productItemRepository.findReservedForOrder(
+                order.getOrderId(), ProductStatus.OCZEKUJE_NA_ODBIOR);
 
         System.out.println("Found " + itemsToSell.size() + " items to sell");
 
@@ -266,67 +329,72 @@ public class OrderService {
     }
 
     private void releaseReservedItems(CustomerOrder order) {
-        List<ProductItem> reservedItems = productItemRepository.findReservedItemsForOrder(order.getOrderId());
-
-        for (ProductItem item : reservedItems) {
-            if (item.getCurrentStatus() == ProductStatus.ZAREZERWOWANY ||
-                    item.getCurrentStatus() == ProductStatus.OCZEKUJE_NA_ODBIOR) {
-                item.setCurrentStatus(ProductStatus.NA_STANIE);
-                productItemRepository.save(item);
-            }
-        }
+        productItemRepository.releaseReservedItems(
+                order.getOrderId(),
+                Arrays.asList(ProductStatus.ZAREZERWOWANY, ProductStatus.OCZEKUJE_NA_ODBIOR),
+                ProductStatus.NA_STANIE);
+        stockTransferService.cancelOrderTransfers(order.getOrderId());
     }
 
     public OrderAvailabilityDTO checkOrderAvailability(Integer pickupStoreId, CreateOrderRequest request) {
-        Store pickupStore = storeRepository.findById(pickupStoreId)
-                .orElseThrow(() -> new ResourceNotFoundException("Store not found with id: " + pickupStoreId));
+        if (referenceDataCache.findStore(pickupStoreId).isEmpty()) {
+            throw new ResourceNotFoundException("Store not found with id: " + pickupStoreId);
+        }
+
+        Map<Integer, Integer> requested = new LinkedHashMap<>();
+        for (CreateOrderRequest.OrderLineRequest lineReq : request.getLines()) {
+            requested.merge(lineReq.getProductId(), lineReq.getQuantity(), Integer::sum);
+        }
+        Map<Integer, Product> products = referenceDataCache.findProducts(requested.keySet());
+        Map<Integer, Store> stores = referenceDataCache.findAllStores().stream()
+                .collect(Collectors.toMap(Store::getStoreId, s -> s));
+
+        // Availability in the pickup store and a split plan if it falls short
+        OrderSourcingService.SourcingPlan plan = orderSourcingService.planSourcing(pickupStoreId, requested);
+
+        // Other stores holding the products, all products in one query
+        // Map<ProductId, Map<StoreId, count>>
+        Map<Integer, Map<Integer, Integer>> otherStores = new HashMap<>();
+        for (Object[] row : stockLevelRepository.countByProducts(requested.keySet(),
+                Arrays.asList(ProductStatus.NA_STANIE, ProductStatus.NA_EKSPOZYCJI))) {
+            if (!row[0].equals(pickupStoreId)) {
+                otherStores.computeIfAbsent((Integer) row[1], k -> new HashMap<>())
+                        .put((Integer) row[0], ((Number) row[2]).intValue());
+            }
+        }
 
         List<OrderAvailabilityDTO.ProductAvailability> productAvailabilities = new ArrayList<>();
         boolean allAvailable = true;
 
-        for (CreateOrderRequest.OrderLineRequest lineReq : request.getLines()) {
-            Product product = productRepository.findById(lineReq.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Product not found with id: " + lineReq.getProductId()));
+        for (Map.Entry<Integer, Integer> entry : requested.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with id: " + entry.getKey());
+            }
 
             // Check availability in pickup store
-            List<ProductItem> itemsInPickupStore = productItemRepository.findAvailableItemsInStore(
-                    product.getProductId(),
-                    pickupStoreId,
-                    ProductStatus.NA_STANIE);
-
-            int availableInPickupStore = itemsInPickupStore.size();
-            boolean productAvailable = availableInPickupStore >= lineReq.getQuantity();
+            int availableInPickupStore = plan.getAvailableInPickupStore().get(entry.getKey());
+            boolean productAvailable = availableInPickupStore >= entry.getValue();
 
-            // If not enough in pickup store, check other stores
+            // If not enough in pickup store, list other stores
             Map<Integer, OrderAvailabilityDTO.ProductAvailability.StoreStock> alternativeStores = new HashMap<>();
             if (!productAvailable) {
-                List<ProductStatus> availableStatuses = Arrays.asList(ProductStatus.NA_STANIE,
-                        ProductStatus.NA_EKSPOZYCJI);
-                List<Object[]> storeStocks = productItemRepository.countAvailableByStore(product.getProductId(),
-                        availableStatuses);
-
-                for (Object[] row : storeStocks) {
-                    Integer storeId = (Integer) row[0];
-                    Long count = (Long) row[1];
-
-                    if (!storeId.equals(pickupStoreId)) {
-                        Store store = storeRepository.findById(storeId).orElse(null);
-                        if (store != null) {
-                            alternativeStores.put(storeId, new OrderAvailabilityDTO.ProductAvailability.StoreStock(
-                                    storeId,
-                                    store.getAddress(),
-                                    store.getCity(),
-                                    count.intValue()));
-                        }
+                otherStores.getOrDefault(entry.getKey(), Collections.emptyMap()).forEach((storeId, count) -> {
+                    Store store = stores.get(storeId);
+                    if (store != null) {
+                        alternativeStores.put(storeId, new OrderAvailabilityDTO.ProductAvailability.StoreStock(
+                                storeId,
+                                store.getAddress(),
+                                store.getCity(),
+                                count));
                     }
-                }
+                });
             }
 
             productAvailabilities.add(new OrderAvailabilityDTO.ProductAvailability(
                     product.getProductId(),
                     product.getName(),
-                    lineReq.getQuantity(),
+                    entry.getValue(),
                     availableInPickupStore,
                     alternativeStores,
                     productAvailable));
@@ -336,56 +404,118 @@ public class OrderService {
             }
         }
 
-        String message = allAvailable
-                ? "All products are available in the selected store"
-                : "Some products are not available in sufficient quantity. Check alternative stores.";
+        List<OrderAvailabilityDTO.SourcingLeg> splitPlan = new ArrayList<>();
+        plan.getTransferLegs().forEach((storeId, quantities) -> {
+            Store store = stores.get(storeId);
+            if (store != null) {
+                splitPlan.add(new OrderAvailabilityDTO.SourcingLeg(
+                        storeId,
+                        store.getAddress(),
+                        store.getCity(),
+                        quantities));
+            }
+        });
+
+        String message;
+        if (allAvailable) {
+            message = "All products are available in the selected store";
+        } else if (plan.isFeasible()) {
+            message = "Some products are not available in sufficient quantity. The order can be split with transfers from "
+                    + splitPlan.size() + " other store(s).";
+        } else {
+            message = "Some products are not available in sufficient quantity. Check alternative stores.";
+        }
 
-        return new OrderAvailabilityDTO(productAvailabilities, allAvailable, message);
+        return new OrderAvailabilityDTO(productAvailabilities, allAvailable, message, splitPlan);
     }
 
     private OrderDTO toDTO(CustomerOrder order) {
-        List<OrderLine> lines = orderLineRepository.findByOrderOrderId(order.getOrderId());
-        boolean hasShortage = false;
-
-        // Check for shortages if order status is NOWE
-        if (order.getStatus() == OrderStatus.NOWE) {
-            for (OrderLine line : lines) {
-                long availableCount = productItemRepository.countByProductProductIdAndStoreStoreIdAndCurrentStatus(
-                        line.getProduct().getProductId(),
-                        order.getPickupStore().getStoreId(),
-                        ProductStatus.NA_STANIE);
-
-                if (availableCount < line.getQuantity()) {
-                    hasShortage = true;
-                    break;
+        return toDTOs(Collections.singletonList(order)).get(0);
+    }
+
+    private Page<OrderDTO> toDTOPage(Page<CustomerOrder> orders) {
+        List<OrderDTO> dtos = toDTOs(orders.getContent());
+        return new PageImpl<>(dtos, orders.getPageable(), orders.getTotalElements());
+    }
+
+    // Hydrates a whole page with a constant number of queries: one for all lines (products fetch-joined)
+    // and one grouped stock count for the shortage flags of NOWE orders.
+    private List<OrderDTO> toDTOs(List<CustomerOrder> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Integer> orderIds = orders.stream()
+                .map(CustomerOrder::getOrderId)
+                .collect(Collectors.toList());
+
+        Map<Integer, List<OrderLine>> linesByOrder = orderLineRepository.findByOrderIdsWithProduct(orderIds).stream()
+                .collect(Collectors.groupingBy(line -> line.getOrder().getOrderId()));
+
+        // Available stock per "storeId:productId" for lines of NOWE orders
+        Set<Integer> storeIds = new HashSet<>();
+        Set<Integer> productIds = new HashSet<>();
+        for (CustomerOrder order : orders) {
+            if (order.getStatus() == OrderStatus.NOWE) {
+                storeIds.add(order.getPickupStore().getStoreId());
+                for (OrderLine line : linesByOrder.getOrDefault(order.getOrderId(), Collections.emptyList())) {
+                    productIds.add(line.getProduct().getProductId());
                 }
             }
         }
 
-        List<OrderDTO.OrderLineDTO> lineDTOs = lines.stream()
-                .map(line -> {
-                    BigDecimal lineTotal = line.getPriceAtOrder().multiply(BigDecimal.valueOf(line.getQuantity()));
-                    return new OrderDTO.OrderLineDTO(
-                            line.getOrderLineId(),
-                            line.getProduct().getProductId(),
-                            line.getProduct().getName(),
-                            line.getQuantity(),
-                            line.getPriceAtOrder(),
-                            lineTotal);
-                })
-                .collect(Collectors.toList());
+        Map<String, Long> availableStock = new HashMap<>();
+        if (!storeIds.isEmpty() && !productIds.isEmpty()) {
+            for (Object[] row : stockLevelRepository.countByStoresAndProducts(storeIds, productIds, ProductStatus.NA_STANIE)) {
+                availableStock.put(row[0] + ":" + row[1], (Long) row[2]);
+            }
+        }
 
-        return new OrderDTO(
-                order.getOrderId(),
-                order.getCustomer().getCustomerId(),
-                order.getCustomer().getFirstName() + " " + order.getCustomer().getLastName(),
-                order.getPickupStore().getStoreId(),
-                order.getPickupStore().getAddress(),
-                order.getPickupStore().getCity(),
-                order.getOrderDate(),
-                order.getStatus().name(),
-                order.getTotalAmount(),
-                hasShortage,
-                lineDTOs);
+        List<OrderDTO> result = new ArrayList<>(orders.size());
+        for (CustomerOrder order : orders) {
+            List<OrderLine> lines = linesByOrder.getOrDefault(order.getOrderId(), Collections.emptyList());
+            boolean hasShortage = false;
+
+            // Check for shortages if order status is NOWE
+            if (order.getStatus() == OrderStatus.NOWE) {
+                for (OrderLine line : lines) {
+                    long availableCount = availableStock.getOrDefault(
+                            order.getPickupStore().getStoreId() + ":" + line.getProduct().getProductId(), 0L);
+
+                    if (availableCount < line.getQuantity()) {
+                        hasShortage = true;
+                        break;
+                    }
+                }
+            }
+
+            List<OrderDTO.OrderLineDTO> lineDTOs = lines.stream()
+                    .map(line -> {
+                        BigDecimal lineTotal = line.getPriceAtOrder().multiply(BigDecimal.valueOf(line.getQuantity()));
+                        return new OrderDTO.OrderLineDTO(
+                                line.getOrderLineId(),
+                                line.getProduct().getProductId(),
+                                line.getProduct().getName(),
+                                line.getQuantity(),
+                                line.getPriceAtOrder(),
+                                lineTotal);
+                    })
+                    .collect(Collectors.toList());
+
+            result.add(new OrderDTO(
+                    order.getOrderId(),
+                    order.getCustomer().getCustomerId(),
+                    order.getCustomer().getFirstName() + " " + order.getCustomer().getLastName(),
+                    order.getPickupStore().getStoreId(),
+                    order.getPickupStore().getAddress(),
+                    order.getPickupStore().getCity(),
+                    order.getOrderDate(),
+                    order.getStatus().name(),
+                    order.getTotalAmount(),
+                    hasShortage,
+                    lineDTOs));
+        }
+
+        return result;
     }
 }
@@ -0,0 +1,193 @@
+package org.pwr.store.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.pwr.store.model.Store;
+import org.pwr.store.model.enums.ProductStatus;
+import org.pwr.store.repository.StockLevelRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Decides which stores an order is sourced from when the pickup store cannot cover it alone.
+ * Everything the pickup store has is used first; the rest comes from as few other stores as possible,
+ * preferring stores in the pickup store's city. The missing units reach the pickup store as transfer legs.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderSourcingService {
+
+    // Up to this many extra stores the smallest set is found exhaustively, above it greedily
+    private static final int MAX_EXACT_SOURCES = 3;
+
+    private final StockLevelRepository stockLevelRepository;
+    private final ReferenceDataCache referenceDataCache;
+
+    @Getter
+    @AllArgsConstructor
+    public static class SourcingPlan {
+        // Map<ProductId, NA_STANIE units in the pickup store>
+        private final Map<Integer, Integer> availableInPickupStore;
+        // Map<SourceStoreId, Map<ProductId, quantity>> to transfer to the pickup store, in preference order
+        private final Map<Integer, Map<Integer, Integer>> transferLegs;
+        private final boolean feasible;
+    }
+
+    public SourcingPlan planSourcing(Integer pickupStoreId, Map<Integer, Integer> requested) {
+        // Free units of every requested product in every store, one query
+        Map<Integer, Map<Integer, Integer>> availability = new HashMap<>();
+        for (Object[] row : stockLevelRepository.countByProducts(
+                requested.keySet(), Collections.singletonList(ProductStatus.NA_STANIE))) {
+            availability.computeIfAbsent((Integer) row[0], k -> new HashMap<>())
+                    .put((Integer) row[1], ((Number) row[2]).intValue());
+        }
+
+        Map<Integer, Integer> inPickupStore = availability.getOrDefault(pickupStoreId, Collections.emptyMap());
+        Map<Integer, Integer> availableInPickupStore = new HashMap<>();
+        Map<Integer, Integer> missing = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entry : requested.entrySet()) {
+            int available = inPickupStore.getOrDefault(entry.getKey(), 0);
+            availableInPickupStore.put(entry.getKey(), available);
+            if (available < entry.getValue()) {
+                missing.put(entry.getKey(), entry.getValue() - available);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return new SourcingPlan(availableInPickupStore, new LinkedHashMap<>(), true);
+        }
+
+        // Candidate x product matrix of the units each other store can contribute
+        Integer[] productIds = missing.keySet().toArray(new Integer[0]);
+        int[] need = missing.values().stream().mapToInt(Integer::intValue).toArray();
+
+        Map<Integer, String> cities = new HashMap<>();
+        for (Store store : referenceDataCache.findAllStores()) {
+            cities.put(store.getStoreId(), store.getCity());
+        }
+        String pickupCity = cities.get(pickupStoreId);
+
+        List<Integer> candidateIds = new ArrayList<>();
+        List<int[]> candidateStock = new ArrayList<>();
+        for (Map.Entry<Integer, Map<Integer, Integer>> entry : availability.entrySet()) {
+            if (entry.getKey().equals(pickupStoreId)) {
+                continue;
+            }
+            int[] stock = new int[productIds.length];
+            boolean useful = false;
+            for (int p = 0; p < productIds.length; p++) {
+                stock[p] = Math.min(need[p], entry.getValue().getOrDefault(productIds[p], 0));
+                useful |= stock[p] > 0;
+            }
+            if (useful) {
+                candidateIds.add(entry.getKey());
+                candidateStock.add(stock);
+            }
+        }
+
+        // Preference order: same city first, then stores covering more of the missing units
+        Integer[] order = new Integer[candidateIds.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator
+                .comparing((Integer i) -> !Objects.equals(pickupCity, cities.get(candidateIds.get(i))))
+                .thenComparing(i -> -Arrays.stream(candidateStock.get(i)).sum())
+                .thenComparing(candidateIds::get));
+        int[] ids = new int[order.length];
+        int[][] stock = new int[order.length][];
+        for (int i = 0; i < order.length; i++) {
+            ids[i] = candidateIds.get(order[i]);
+            stock[i] = candidateStock.get(order[i]);
+        }
+
+        int[] chosen = findSmallestCover(stock, need);
+        if (chosen == null) {
+            return new SourcingPlan(availableInPickupStore, new LinkedHashMap<>(), false);
+        }
+
+        // Fill the missing units from the chosen stores in preference order
+        Map<Integer, Map<Integer, Integer>> legs = new LinkedHashMap<>();
+        int[] remaining = need.clone();
+        for (int c : chosen) {
+            for (int p = 0; p < productIds.length; p++) {
+                int quantity = Math.min(remaining[p], stock[c][p]);
+                if (quantity > 0) {
+                    remaining[p] -= quantity;
+                    legs.computeIfAbsent(ids[c], k -> new LinkedHashMap<>()).put(productIds[p], quantity);
+                }
+            }
+        }
+        return new SourcingPlan(availableInPickupStore, legs, true);
+    }
+
+    // Indexes of the fewest candidates that together cover the need, null if all of them are not enough
+    private int[] findSmallestCover(int[][] stock, int[] need) {
+        for (int size = 1; size <= Math.min(MAX_EXACT_SOURCES, stock.length); size++) {
+            int[] combination = new int[size];
+            if (searchCover(stock, need, combination, 0, 0)) {
+                return combination;
+            }
+        }
+        return greedyCover(stock, need);
+    }
+
+    // Combinations in preference order, so the first cover found is also the most preferred of its size
+    private boolean searchCover(int[][] stock, int[] need, int[] combination, int depth, int start) {
+        if (depth == combination.length) {
+            for (int p = 0; p < need.length; p++) {
+                int total = 0;
+                for (int c : combination) {
+                    total += stock[c][p];
+                }
+                if (total < need[p]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int c = start; c <= stock.length - (combination.length - depth); c++) {
+            combination[depth] = c;
+            if (searchCover(stock, need, combination, depth + 1, c + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Repeatedly takes the store covering most of what is still missing
+    private int[] greedyCover(int[][] stock, int[] need) {
+        int[] remaining = need.clone();
+        boolean[] used = new boolean[stock.length];
+        List<Integer> chosen = new ArrayList<>();
+
+        while (Arrays.stream(remaining).sum() > 0) {
+            int best = -1;
+            int bestCovered = 0;
+            for (int c = 0; c < stock.length; c++) {
+                if (used[c]) {
+                    continue;
+                }
+                int covered = 0;
+                for (int p = 0; p < remaining.length; p++) {
+                    covered += Math.min(remaining[p], stock[c][p]);
+                }
+                if (covered > bestCovered) {
+                    best = c;
+                    bestCovered = covered;
+                }
+            }
+            if (best < 0) {
+                return null;
+            }
+            used[best] = true;
+            chosen.add(best);
+            for (int p = 0; p < remaining.length; p++) {
+                remaining[p] -= Math.min(remaining[p], stock[best][p]);
+            }
+        }
+        return chosen.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -2,16 +2,16 @@ package org.pwr.store.service;
 
 import lombok.RequiredArgsConstructor;
 import org.pwr.store.dto.product.*;
+import org.pwr.store.event.ProductChangedEvent;
 import org.pwr.store.exception.ResourceNotFoundException;
 import org.pwr.store.model.Category;
 import org.pwr.store.model.Product;
-import org.pwr.store.model.ProductItem;
 import org.pwr.store.model.Store;
 import org.pwr.store.model.enums.ProductStatus;
 import org.pwr.store.repository.CategoryRepository;
-import org.pwr.store.repository.ProductItemRepository;
 import org.pwr.store.repository.ProductRepository;
-import org.pwr.store.repository.StoreRepository;
+import org.pwr.store.repository.StockLevelRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,8 +26,10 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
-    private final ProductItemRepository productItemRepository;
-    private final StoreRepository storeRepository;
+    private final StockLevelRepository stockLevelRepository;
+    private final ProductSuggestionService productSuggestionService;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<ProductDTO> getAllProducts(Pageable pageable) {
         return productRepository.findAll(pageable).map(this::toDTO);
@@ -40,8 +42,18 @@ public class ProductService {
         return productRepository.findByCategoryCategoryId(categoryId, pageable).map(this::toDTO);
     }
 
+    // Ranked full-text + trigram search (see V15__Product_full_text_search.sql)
     public Page<ProductDTO> searchProducts(String search, Pageable pageable) {
-        return productRepository.searchProducts(search, pageable).map(this::toDTO);
+        String query = search == null ? "" : search.trim();
+        if (query.isEmpty()) {
+            return getAllProducts(pageable);
+        }
+        return productRepository.searchProducts(query, pageable).map(this::toDTO);
+    }
+
+    // Typeahead from the in-memory index, no database access
+    public List<ProductSuggestionDTO> suggestProducts(String prefix, int limit) {
+        return productSuggestionService.suggest(prefix, limit);
     }
 
     public ProductDTO getProductById(Integer id) {
@@ -52,7 +64,7 @@ public class ProductService {
 
     @Transactional
     public ProductDTO createProduct(CreateProductRequest request) {
-        Category category = categoryRepository.findById(request.getCategoryId())
+        Category category = referenceDataCache.findCategory(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + request.getCategoryId()));
 
         Product product = new Product();
@@ -62,6 +74,7 @@ public class ProductService {
         product.setBasePrice(request.getBasePrice());
 
         product = productRepository.save(product);
+        publishChanged(product);
         return toDTO(product);
     }
 
@@ -71,7 +84,7 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
         if (request.getCategoryId() != null) {
-            Category category = categoryRepository.findById(request.getCategoryId())
+            Category category = referenceDataCache.findCategory(request.getCategoryId())
                     .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + request.getCategoryId()));
             product.setCategory(category);
         }
@@ -89,6 +102,8 @@ public class ProductService {
         }
 
         product = productRepository.save(product);
+        referenceDataCache.evictProduct(id);
+        publishChanged(product);
         return toDTO(product);
     }
 
@@ -98,10 +113,22 @@ public class ProductService {
             throw new ResourceNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        referenceDataCache.evictProduct(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, null, null, null, true));
+    }
+
+    private void publishChanged(Product product) {
+        Category category = product.getCategory();
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                product.getProductId(),
+                product.getName(),
+                category != null ? category.getCategoryId() : null,
+                category != null ? category.getName() : null,
+                false));
     }
 
     public ProductAvailabilityDTO getProductAvailability(Integer productId) {
-        Product product = productRepository.findById(productId)
+        Product product = referenceDataCache.findProduct(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
         List<ProductStatus> availableStatuses = Arrays.asList(
@@ -109,15 +136,18 @@ public class ProductService {
             ProductStatus.NA_EKSPOZYCJI
         );
 
-        List<Object[]> availability = productItemRepository.countAvailableByStore(productId, availableStatuses);
+        List<Object[]> availability = stockLevelRepository.countAvailableByStore(productId, availableStatuses);
         
         Map<Integer, ProductAvailabilityDTO.StoreAvailability> storeAvailabilityMap = new HashMap<>();
+        Map<Integer, Store> stores = referenceDataCache.findStores(availability.stream()
+                .map(row -> (Integer) row[0])
+                .collect(Collectors.toList()));
         
         for (Object[] row : availability) {
             Integer storeId = (Integer) row[0];
             Long count = (Long) row[1];
             
-            Store store = storeRepository.findById(storeId).orElse(null);
+            Store store = stores.get(storeId);
             if (store != null) {
                 ProductAvailabilityDTO.StoreAvailability storeAvail = 
                     new ProductAvailabilityDTO.StoreAvailability(
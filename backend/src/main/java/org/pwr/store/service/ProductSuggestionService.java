@@ -0,0 +1,282 @@
+package org.pwr.store.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.dto.product.ProductSuggestionDTO;
+import org.pwr.store.event.CategoryChangedEvent;
+import org.pwr.store.event.ProductChangedEvent;
+import org.pwr.store.model.Product;
+import org.pwr.store.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead over product names and category names, answered from memory.
+ * Every name is split into normalized tokens (lower case, no diacritics) kept in one sorted array,
+ * so a prefix lookup is a binary search followed by a short scan. The index is an immutable snapshot
+ * that product/category writes patch after their transaction commits.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSuggestionService {
+
+    private static final int MAX_LIMIT = 50;
+    // Upper bound of distinct products looked at per query, keeps lookups short for very common prefixes
+    private static final int MAX_CANDIDATES = 500;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+
+    private volatile Index index = Index.EMPTY;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<Integer, Entry> entries = new HashMap<>();
+        for (Product product : productRepository.findAll()) {
+            Entry entry = toEntry(product.getProductId(), product.getName(),
+                    product.getCategory() != null ? product.getCategory().getCategoryId() : null,
+                    product.getCategory() != null ? product.getCategory().getName() : null);
+            entries.put(entry.productId, entry);
+        }
+        index = Index.build(entries);
+        log.info("Product suggestion index built with {} products and {} tokens", entries.size(), index.tokens.length);
+    }
+
+    public List<ProductSuggestionDTO> suggest(String query, int limit) {
+        String[] queryTokens = tokenize(query == null ? "" : query);
+        if (queryTokens.length == 0) {
+            return new ArrayList<>();
+        }
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String normalizedQuery = String.join(" ", queryTokens);
+        Index current = index;
+
+        // Candidates: products with a token starting with the longest query token (most selective)
+        String lead = Arrays.stream(queryTokens).max(Comparator.comparingInt(String::length)).get();
+        Set<Integer> seen = new HashSet<>();
+        List<Entry> matches = new ArrayList<>();
+        for (int i = current.lowerBound(lead); i < current.tokens.length && current.tokens[i].startsWith(lead); i++) {
+            Integer productId = current.productIds[i];
+            if (!seen.add(productId)) {
+                continue;
+            }
+            Entry entry = current.entries.get(productId);
+            if (entry.matchesAll(queryTokens)) {
+                matches.add(entry);
+            }
+            if (seen.size() >= MAX_CANDIDATES) {
+                break;
+            }
+        }
+
+        // Names starting with the query first, then names containing the tokens, then category-only matches
+        matches.sort(Comparator
+                .comparingInt((Entry e) -> e.rank(normalizedQuery, queryTokens))
+                .thenComparing(e -> e.name, String.CASE_INSENSITIVE_ORDER));
+
+        List<ProductSuggestionDTO> result = new ArrayList<>(Math.min(max, matches.size()));
+        for (Entry entry : matches.subList(0, Math.min(max, matches.size()))) {
+            result.add(new ProductSuggestionDTO(entry.productId, entry.name, entry.categoryName));
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Map<Integer, Entry> entries = new HashMap<>(index.entries);
+        if (event.isDeleted()) {
+            entries.remove(event.getProductId());
+        } else {
+            entries.put(event.getProductId(),
+                    toEntry(event.getProductId(), event.getName(), event.getCategoryId(), event.getCategoryName()));
+        }
+        index = index.patch(entries, Collections.singleton(event.getProductId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        Map<Integer, Entry> entries = new HashMap<>(index.entries);
+        Set<Integer> changed = new HashSet<>();
+        for (Entry entry : index.entries.values()) {
+            if (Objects.equals(entry.categoryId, event.getCategoryId())) {
+                String categoryName = event.isDeleted() ? null : event.getName();
+                entries.put(entry.productId, toEntry(entry.productId, entry.name,
+                        event.isDeleted() ? null : entry.categoryId, categoryName));
+                changed.add(entry.productId);
+            }
+        }
+        if (!changed.isEmpty()) {
+            index = index.patch(entries, changed);
+        }
+    }
+
+    private static Entry toEntry(Integer productId, String name, Integer categoryId, String categoryName) {
+        String[] nameTokens = tokenize(name == null ? "" : name);
+        String[] categoryTokens = tokenize(categoryName == null ? "" : categoryName);
+        return new Entry(productId, name, categoryId, categoryName, String.join(" ", nameTokens),
+                nameTokens, categoryTokens);
+    }
+
+    static String[] tokenize(String text) {
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace('ł', 'l');
+        return Arrays.stream(SEPARATORS.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static final class Entry {
+        final Integer productId;
+        final String name;
+        final Integer categoryId;
+        final String categoryName;
+        final String normalizedName;
+        final String[] nameTokens;
+        final String[] categoryTokens;
+
+        Entry(Integer productId, String name, Integer categoryId, String categoryName, String normalizedName,
+              String[] nameTokens, String[] categoryTokens) {
+            this.productId = productId;
+            this.name = name;
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.normalizedName = normalizedName;
+            this.nameTokens = nameTokens;
+            this.categoryTokens = categoryTokens;
+        }
+
+        boolean matchesAll(String[] queryTokens) {
+            for (String queryToken : queryTokens) {
+                if (!hasPrefix(nameTokens, queryToken) && !hasPrefix(categoryTokens, queryToken)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int rank(String normalizedQuery, String[] queryTokens) {
+            if (normalizedName.startsWith(normalizedQuery)) {
+                return 0;
+            }
+            for (String queryToken : queryTokens) {
+                if (!hasPrefix(nameTokens, queryToken)) {
+                    return 2;
+                }
+            }
+            return 1;
+        }
+
+        private static boolean hasPrefix(String[] tokens, String prefix) {
+            for (String token : tokens) {
+                if (token.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Sorted (token, productId) pairs in two parallel arrays plus the entries they point to
+    private static final class Index {
+        static final Index EMPTY = new Index(new String[0], new Integer[0], Collections.emptyMap());
+
+        final String[] tokens;
+        final Integer[] productIds;
+        final Map<Integer, Entry> entries;
+
+        Index(String[] tokens, Integer[] productIds, Map<Integer, Entry> entries) {
+            this.tokens = tokens;
+            this.productIds = productIds;
+            this.entries = entries;
+        }
+
+        static Index build(Map<Integer, Entry> entries) {
+            List<Object[]> pairs = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                addPairs(pairs, entry);
+            }
+            return fromSortedPairs(sortPairs(pairs), entries);
+        }
+
+        // Drops the pairs of the changed products and merges in their new ones, without re-sorting the rest
+        Index patch(Map<Integer, Entry> newEntries, Set<Integer> changedProductIds) {
+            List<Object[]> added = new ArrayList<>();
+            for (Integer productId : changedProductIds) {
+                Entry entry = newEntries.get(productId);
+                if (entry != null) {
+                    addPairs(added, entry);
+                }
+            }
+            sortPairs(added);
+
+            List<String> mergedTokens = new ArrayList<>(tokens.length + added.size());
+            List<Integer> mergedIds = new ArrayList<>(tokens.length + added.size());
+            int a = 0;
+            for (int i = 0; i <= tokens.length; i++) {
+                boolean more = i < tokens.length;
+                while (a < added.size() && (!more || compare(added.get(a), tokens[i], productIds[i]) <= 0)) {
+                    mergedTokens.add((String) added.get(a)[0]);
+                    mergedIds.add((Integer) added.get(a)[1]);
+                    a++;
+                }
+                if (more && !changedProductIds.contains(productIds[i])) {
+                    mergedTokens.add(tokens[i]);
+                    mergedIds.add(productIds[i]);
+                }
+            }
+            return new Index(mergedTokens.toArray(new String[0]), mergedIds.toArray(new Integer[0]),
+                    Collections.unmodifiableMap(newEntries));
+        }
+
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = tokens.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (tokens[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static void addPairs(List<Object[]> pairs, Entry entry) {
+            Set<String> distinct = new HashSet<>(Arrays.asList(entry.nameTokens));
+            distinct.addAll(Arrays.asList(entry.categoryTokens));
+            for (String token : distinct) {
+                pairs.add(new Object[]{token, entry.productId});
+            }
+        }
+
+        private static List<Object[]> sortPairs(List<Object[]> pairs) {
+            pairs.sort((x, y) -> compare(x, (String) y[0], (Integer) y[1]));
+            return pairs;
+        }
+
+        private static int compare(Object[] pair, String token, Integer productId) {
+            int byToken = ((String) pair[0]).compareTo(token);
+            return byToken != 0 ? byToken : ((Integer) pair[1]).compareTo(productId);
+        }
+
+        private static Index fromSortedPairs(List<Object[]> pairs, Map<Integer, Entry> entries) {
+            String[] tokens = new String[pairs.size()];
+            Integer[] productIds = new Integer[pairs.size()];
+            for (int i = 0; i < pairs.size(); i++) {
+                tokens[i] = (String) pairs.get(i)[0];
+                productIds[i] = (Integer) pairs.get(i)[1];
+            }
+            return new Index(tokens, productIds, Collections.unmodifiableMap(entries));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.pwr.store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.pwr.store.dto.cache.CacheStatsDTO;
+import org.pwr.store.model.Category;
+import org.pwr.store.model.Product;
+import org.pwr.store.model.Store;
+import org.pwr.store.repository.CategoryRepository;
+import org.pwr.store.repository.ProductRepository;
+import org.pwr.store.repository.StoreRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of rarely changing reference rows (stores, categories, products).
+ * Entries are detached entities: use them for reading and as association targets, never modify them.
+ * Write paths in StoreService, CategoryService and ProductService evict the rows they change.
+ */
+@Service
+public class ReferenceDataCache {
+
+    private static final String ALL = "all";
+
+    private final LoadingCache<Integer, Store> stores;
+    private final LoadingCache<String, List<Store>> allStores;
+    private final LoadingCache<Integer, Category> categories;
+    private final LoadingCache<Integer, Product> products;
+
+    public ReferenceDataCache(StoreRepository storeRepository,
+                              CategoryRepository categoryRepository,
+                              ProductRepository productRepository,
+                              @Value("${app.cache.reference.max-size:10000}") long maxSize,
+                              @Value("${app.cache.reference.ttl:10m}") Duration ttl) {
+        this.stores = newCache(maxSize, ttl).build(new BulkLoader<>(
+                id -> storeRepository.findById(id).orElse(null),
+                ids -> storeRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Store::getStoreId, s -> s))));
+        this.allStores = newCache(1, ttl).build(key -> List.copyOf(storeRepository.findAll()));
+        this.categories = newCache(maxSize, ttl).build(id -> categoryRepository.findById(id).orElse(null));
+        this.products = newCache(maxSize, ttl).build(new BulkLoader<>(
+                id -> productRepository.findById(id).orElse(null),
+                ids -> productRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Product::getProductId, p -> p))));
+    }
+
+    public Optional<Store> findStore(Integer id) {
+        return Optional.ofNullable(stores.get(id));
+    }
+
+    // Missing ids are loaded with one findAllById; unknown ids are absent from the result
+    public Map<Integer, Store> findStores(Collection<Integer> ids) {
+        return stores.getAll(ids);
+    }
+
+    public List<Store> findAllStores() {
+        return allStores.get(ALL);
+    }
+
+    public Optional<Category> findCategory(Integer id) {
+        return Optional.ofNullable(categories.get(id));
+    }
+
+    public Optional<Product> findProduct(Integer id) {
+        return Optional.ofNullable(products.get(id));
+    }
+
+    public Map<Integer, Product> findProducts(Collection<Integer> ids) {
+        return products.getAll(ids);
+    }
+
+    public void evictStore(Integer id) {
+        evict(() -> {
+            stores.invalidate(id);
+            allStores.invalidateAll();
+        });
+    }
+
+    // Cached products carry their category, so they are dropped too
+    public void evictCategory(Integer id) {
+        evict(() -> {
+            categories.invalidate(id);
+            products.invalidateAll();
+        });
+    }
+
+    public void evictProduct(Integer id) {
+        evict(() -> products.invalidate(id));
+    }
+
+    public List<CacheStatsDTO> getStats() {
+        return List.of(
+                toStats("stores", stores),
+                toStats("allStores", allStores),
+                toStats("categories", categories),
+                toStats("products", products));
+    }
+
+    // Evicts right away and once more after commit, so a concurrent read cannot re-cache the old row
+    // between the write and the commit
+    private void evict(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static Caffeine<Object, Object> newCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats();
+    }
+
+    private static CacheStatsDTO toStats(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+
+    private static final class BulkLoader<V> implements CacheLoader<Integer, V> {
+        private final Function<Integer, V> single;
+        private final Function<Set<Integer>, Map<Integer, V>> bulk;
+
+        private BulkLoader(Function<Integer, V> single, Function<Set<Integer>, Map<Integer, V>> bulk) {
+            this.single = single;
+            this.bulk = bulk;
+        }
+
+        @Override
+        public V load(Integer key) {
+            return single.apply(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<Integer, V> loadAll(Set<? extends Integer> keys) {
+            return bulk.apply((Set<Integer>) keys);
+        }
+    }
+}
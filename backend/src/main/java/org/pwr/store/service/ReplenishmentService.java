@@ -0,0 +1,131 @@
+package org.pwr.store.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.dto.store.ReplenishmentRunDTO;
+import org.pwr.store.model.Store;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chain-wide replenishment run. Restock quantities of all stores are planned from a few chain-wide queries;
+ * each store's delivery is then created in its own transaction on a virtual thread, so one failing store
+ * does not roll back the others. A semaphore caps how many of them talk to the database at once
+ * so the run cannot drain the connection pool.
+ * The run reports the shared planning time once and, per store, only the time spent creating its delivery.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReplenishmentService {
+
+    private final StoreService storeService;
+    private final ReferenceDataCache referenceDataCache;
+
+    @Value("${app.replenishment.db-concurrency:4}")
+    private int dbConcurrency;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReplenishmentRunDTO lastRun;
+
+    public ReplenishmentRunDTO runReplenishment() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Replenishment run already in progress");
+        }
+        try {
+            return doRun();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Optional<ReplenishmentRunDTO> getLastRun() {
+        return Optional.ofNullable(lastRun);
+    }
+
+    private ReplenishmentRunDTO doRun() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        List<Integer> storeIds = referenceDataCache.findAllStores().stream()
+                .map(Store::getStoreId)
+                .sorted()
+                .toList();
+        Map<Integer, Map<Integer, Integer>> quantitiesByStore = storeService.getRestockQuantitiesForAllStores();
+        long planningMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Semaphore dbGate = new Semaphore(dbConcurrency);
+        Map<Integer, Future<Integer>> deliveries = new LinkedHashMap<>();
+        Map<Integer, Long> insertTimes = new HashMap<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Integer storeId : storeIds) {
+                Map<Integer, Integer> quantities = quantitiesByStore.get(storeId);
+                if (quantities == null || quantities.isEmpty()) {
+                    continue;
+                }
+                deliveries.put(storeId, executor.submit(() -> {
+                    dbGate.acquire();
+                    long storeStart = System.nanoTime();
+                    try {
+                        // Commits on its own; a failure only loses this store's delivery
+                        return storeService.createAutoDeliveries(Map.of(storeId, quantities)).get(0);
+                    } finally {
+                        synchronized (insertTimes) {
+                            insertTimes.put(storeId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - storeStart));
+                        }
+                        dbGate.release();
+                    }
+                }));
+            }
+        } // close() waits for all stores
+
+        int deliveriesCreated = 0;
+        List<ReplenishmentRunDTO.StoreTimingDTO> timings = new ArrayList<>();
+        for (Integer storeId : storeIds) {
+            Future<Integer> delivery = deliveries.get(storeId);
+            if (delivery == null) {
+                timings.add(new ReplenishmentRunDTO.StoreTimingDTO(storeId, 0L, 0, null, null));
+                continue;
+            }
+            Long insertMs = insertTimes.get(storeId);
+            int products = quantitiesByStore.get(storeId).size();
+            try {
+                Integer deliveryId = delivery.get();
+                deliveriesCreated++;
+                timings.add(new ReplenishmentRunDTO.StoreTimingDTO(storeId, insertMs, products, deliveryId, null));
+                log.debug("Replenishment created delivery {} for store {} in {} ms ({} products to restock)",
+                        deliveryId, storeId, insertMs, products);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Replenishment run interrupted");
+            } catch (ExecutionException e) {
+                timings.add(new ReplenishmentRunDTO.StoreTimingDTO(storeId, insertMs, products, null, e.getCause().getMessage()));
+                log.error("Replenishment failed for store {}: {}", storeId, e.getCause().getMessage());
+            }
+        }
+
+        ReplenishmentRunDTO run = new ReplenishmentRunDTO(
+                startedAt,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                planningMs,
+                storeIds.size(),
+                deliveriesCreated,
+                timings);
+        lastRun = run;
+
+        log.info("Replenishment run evaluated {} stores in {} ms ({} ms planning), created {} deliveries",
+                run.getStoresEvaluated(), run.getDurationMs(), run.getPlanningMs(), run.getDeliveriesCreated());
+        return run;
+    }
+}
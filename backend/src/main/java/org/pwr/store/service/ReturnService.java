@@ -116,6 +116,8 @@ public class ReturnService {
                 } else {
                     item.setCurrentStatus(ProductStatus.NA_STANIE);
                 }
+                // Back in stock - no longer tied to the original order
+                item.setReservedForOrderId(null);
                 
                 productItemRepository.save(item);
             }
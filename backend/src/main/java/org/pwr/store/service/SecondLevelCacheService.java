@@ -0,0 +1,63 @@
+package org.pwr.store.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.pwr.store.dto.cache.SecondLevelCacheStatsDTO;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hibernate second-level and query cache statistics (enabled by hibernate.generate_statistics).
+ * Reset before replaying a request mix, read afterwards to get the hit rates of that mix alone.
+ */
+@Service
+public class SecondLevelCacheService {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public SecondLevelCacheStatsDTO getStats() {
+        List<SecondLevelCacheStatsDTO.RegionStats> regions = new ArrayList<>();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.add(new SecondLevelCacheStatsDTO.RegionStats(regionName,
+                        region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                        hitRate(region.getHitCount(), region.getMissCount())));
+            }
+        }
+
+        return new SecondLevelCacheStatsDTO(
+                statistics.getStart(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                hitRate(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                hitRate(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()),
+                statistics.getEntityLoadCount(),
+                statistics.getPrepareStatementCount(),
+                regions);
+    }
+
+    public void resetStats() {
+        statistics.clear();
+    }
+
+    private static double hitRate(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+}
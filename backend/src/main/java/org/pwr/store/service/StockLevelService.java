@@ -0,0 +1,45 @@
+package org.pwr.store.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pwr.store.dto.stock.StockLevelDriftDTO;
+import org.pwr.store.repository.StockLevelRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockLevelService {
+
+    private final StockLevelRepository stockLevelRepository;
+
+    /**
+     * Recomputes stock counters from productitems, overwrites any counter that drifted
+     * and returns the rows that were corrected.
+     */
+    @Transactional
+    public List<StockLevelDriftDTO> reconcile() {
+        stockLevelRepository.lockForReconciliation();
+
+        List<StockLevelDriftDTO> drift = stockLevelRepository.findDrift().stream()
+                .map(row -> new StockLevelDriftDTO(
+                        ((Number) row[0]).intValue(),
+                        ((Number) row[1]).intValue(),
+                        (String) row[2],
+                        ((Number) row[3]).intValue(),
+                        ((Number) row[4]).intValue()))
+                .collect(Collectors.toList());
+
+        for (StockLevelDriftDTO row : drift) {
+            log.warn("Stock level drift for store {} product {} status {}: counter {} but {} units",
+                    row.getStoreId(), row.getProductId(), row.getStatus(), row.getStoredQty(), row.getActualQty());
+            stockLevelRepository.overwrite(row.getStoreId(), row.getProductId(), row.getStatus(), row.getActualQty());
+        }
+
+        return drift;
+    }
+}
@@ -0,0 +1,313 @@
+package org.pwr.store.service;
+
+import lombok.RequiredArgsConstructor;
+import org.pwr.store.dto.store.LowStockItemDTO;
+import org.pwr.store.dto.transfer.StockTransferDTO;
+import org.pwr.store.exception.ResourceNotFoundException;
+import org.pwr.store.model.StockTransfer;
+import org.pwr.store.model.StockTransferLine;
+import org.pwr.store.model.Store;
+import org.pwr.store.repository.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Rebalances stock between stores: units above a product's minimum stock in one store
+ * are moved to stores that are below its low-stock threshold.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockTransferService {
+
+    private static final String PLANNED = "ZAPLANOWANA";
+    private static final String COMPLETED = "ZREALIZOWANA";
+    private static final String CANCELLED = "ANULOWANA";
+
+    private final StockTransferRepository transferRepository;
+    private final StockTransferLineRepository transferLineRepository;
+    private final StockLevelRepository stockLevelRepository;
+    private final ProductItemRepository productItemRepository;
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final ReferenceDataCache referenceDataCache;
+
+    @Transactional(readOnly = true)
+    public Page<StockTransferDTO> getTransfers(String status, Pageable pageable) {
+        Page<StockTransfer> transfers = status != null && !status.isEmpty()
+                ? transferRepository.findByStatus(status, pageable)
+                : transferRepository.findAll(pageable);
+        return new PageImpl<>(toDTOs(transfers.getContent()), pageable, transfers.getTotalElements());
+    }
+
+    @Transactional(readOnly = true)
+    public StockTransferDTO getTransferById(Integer id) {
+        StockTransfer transfer = transferRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transfer not found with id: " + id));
+        return toDTOs(List.of(transfer)).get(0);
+    }
+
+    // Preview of the transfers the planner would create, nothing is saved
+    @Transactional(readOnly = true)
+    public List<StockTransferDTO> planTransfers() {
+        Plan plan = buildPlan();
+        List<StockTransferDTO> result = new ArrayList<>();
+        plan.moves.forEach((pair, lines) -> result.add(new StockTransferDTO(
+                null,
+                (int) (pair >>> 32), plan.storeNames.get((int) (pair >>> 32)),
+                (int) (long) pair, plan.storeNames.get((int) (long) pair),
+                null,
+                PLANNED, null, null,
+                lines.entrySet().stream()
+                        .map(e -> new StockTransferDTO.TransferLineDTO(
+                                null, e.getKey(), plan.productNames.get(e.getKey()), e.getValue()))
+                        .collect(Collectors.toList()))));
+        return result;
+    }
+
+    // Saves the current plan as ZAPLANOWANA transfer documents, one per source/target store pair
+    @Transactional
+    public List<StockTransferDTO> createPlannedTransfers() {
+        Map<Long, Map<Integer, Integer>> moves = buildPlan().moves;
+        return toDTOs(saveTransfers(moves, null));
+    }
+
+    // Transfer legs bringing the units of a split-fulfilment order to its pickup store
+    // Map<SourceStoreId, Map<ProductId, quantity>>
+    // The units are reserved for the order in the source stores right away, so nobody else can sell them meanwhile
+    @Transactional
+    public List<StockTransferDTO> createOrderTransfers(Integer orderId, Integer pickupStoreId,
+                                                      Map<Integer, Map<Integer, Integer>> legs) {
+        Map<Long, Map<Integer, Integer>> moves = new LinkedHashMap<>();
+        legs.forEach((fromStoreId, quantities) -> {
+            moves.put(((long) fromStoreId << 32) | pickupStoreId, quantities);
+            quantities.forEach((productId, quantity) -> {
+                int reserved = productItemRepository.reserveAvailableItems(orderId, productId, fromStoreId, quantity);
+                // Taken by a concurrent order since sourcing was planned - the exception rolls back the whole order
+                if (reserved < quantity) {
+                    throw new IllegalStateException("Not enough available units of product " + productId
+                            + " in store " + fromStoreId + " (requested: " + quantity + ", available: " + reserved + ")");
+                }
+            });
+        });
+        return toDTOs(saveTransfers(moves, orderId));
+    }
+
+    // True while some unit of the order is still on its way to the pickup store
+    @Transactional(readOnly = true)
+    public boolean hasPendingOrderTransfers(Integer orderId) {
+        return transferRepository.existsByOrderIdAndStatus(orderId, PLANNED);
+    }
+
+    private List<StockTransfer> saveTransfers(Map<Long, Map<Integer, Integer>> moves, Integer orderId) {
+        List<StockTransfer> transfers = new ArrayList<>();
+        List<StockTransferLine> lines = new ArrayList<>();
+        moves.forEach((pair, quantities) -> {
+            StockTransfer transfer = new StockTransfer();
+            transfer.setFromStore(storeRepository.getReferenceById((int) (pair >>> 32)));
+            transfer.setToStore(storeRepository.getReferenceById((int) (long) pair));
+            transfer.setOrderId(orderId);
+            transfer.setStatus(PLANNED);
+            transfers.add(transfer);
+
+            quantities.forEach((productId, quantity) -> {
+                StockTransferLine line = new StockTransferLine();
+                line.setTransfer(transfer);
+                line.setProduct(productRepository.getReferenceById(productId));
+                line.setQuantity(quantity);
+                lines.add(line);
+            });
+        });
+
+        transferRepository.saveAll(transfers);
+        transferLineRepository.saveAll(lines);
+        return transfers;
+    }
+
+    // Legs of a cancelled order that were not carried out yet
+    @Transactional
+    public void cancelOrderTransfers(Integer orderId) {
+        transferRepository.updateStatusForOrder(orderId, PLANNED, CANCELLED);
+    }
+
+    @Transactional
+    public StockTransferDTO updateTransferStatus(Integer id, String status) {
+        StockTransfer transfer = transferRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transfer not found with id: " + id));
+
+        if (!PLANNED.equals(transfer.getStatus())) {
+            throw new IllegalStateException("Transfer is already " + transfer.getStatus());
+        }
+
+        Integer orderId = transfer.getOrderId();
+        Integer fromStoreId = transfer.getFromStore().getStoreId();
+        if (COMPLETED.equals(status)) {
+            // One set-based UPDATE of productitems.store_id per line; stock_levels follow via triggers
+            // An order leg moves the units reserved for the order, which arrive still reserved for it
+            for (StockTransferLine line : transferLineRepository.findByTransferIdsWithProduct(List.of(id))) {
+                Integer productId = line.getProduct().getProductId();
+                int moved = orderId != null
+                        ? productItemRepository.transferReservedItems(
+                                orderId, fromStoreId, transfer.getToStore().getStoreId(), productId, line.getQuantity())
+                        : productItemRepository.transferAvailableItems(
+                                fromStoreId, transfer.getToStore().getStoreId(), productId, line.getQuantity());
+                if (moved < line.getQuantity()) {
+                    throw new IllegalStateException("Not enough available units of product: " + line.getProduct().getName()
+                            + " (requested: " + line.getQuantity() + ", available: " + moved + ")");
+                }
+            }
+            transfer.setCompletedAt(LocalDateTime.now());
+        } else if (CANCELLED.equals(status)) {
+            // A cancelled order leg gives its units back to the source store
+            if (orderId != null) {
+                List<Integer> productIds = transferLineRepository.findByTransferIdsWithProduct(List.of(id)).stream()
+                        .map(line -> line.getProduct().getProductId())
+                        .collect(Collectors.toList());
+                productItemRepository.releaseReservedItemsInStore(orderId, fromStoreId, productIds);
+            }
+        } else {
+            throw new IllegalArgumentException("Invalid transfer status: " + status);
+        }
+
+        transfer.setStatus(status);
+        transfer = transferRepository.save(transfer);
+        return toDTOs(List.of(transfer)).get(0);
+    }
+
+    private Plan buildPlan() {
+        Plan plan = new Plan();
+        for (Store store : referenceDataCache.findAllStores()) {
+            plan.storeNames.put(store.getStoreId(), store.getAddress() + ", " + store.getCity());
+            plan.storeCities.put(store.getStoreId(), store.getCity());
+        }
+
+        // Deficits: units needed to bring each low-stock store back to minimum stock
+        // Map<ProductId, Map<StoreId, quantity>>
+        Map<Integer, Map<Integer, Integer>> deficits = new TreeMap<>();
+        for (LowStockItemDTO item : stockLevelRepository.findLowStockForAllStores()) {
+            plan.productNames.put(item.getProductId(), item.getProductName());
+            deficits.computeIfAbsent(item.getProductId(), k -> new HashMap<>())
+                    .put(item.getStoreId(), item.getQuantityNeeded());
+        }
+        if (deficits.isEmpty()) {
+            return plan;
+        }
+
+        // Surpluses: units a store holds above minimum stock
+        Map<Integer, Map<Integer, Integer>> surpluses = new HashMap<>();
+        for (Object[] row : stockLevelRepository.findSurplusForAllStores()) {
+            Integer productId = (Integer) row[1];
+            if (deficits.containsKey(productId)) {
+                surpluses.computeIfAbsent(productId, k -> new HashMap<>())
+                        .put((Integer) row[0], ((Number) row[2]).intValue());
+            }
+        }
+
+        // Transfers already planned but not completed count as moved
+        for (Object[] row : transferLineRepository.sumQuantityByStoresAndProduct(PLANNED)) {
+            int quantity = ((Number) row[3]).intValue();
+            Integer productId = (Integer) row[2];
+            Map<Integer, Integer> productSurplus = surpluses.get(productId);
+            if (productSurplus != null) {
+                productSurplus.computeIfPresent((Integer) row[0], (k, v) -> v - quantity);
+            }
+            Map<Integer, Integer> productDeficit = deficits.get(productId);
+            if (productDeficit != null) {
+                productDeficit.computeIfPresent((Integer) row[1], (k, v) -> v - quantity);
+            }
+        }
+
+        for (Map.Entry<Integer, Map<Integer, Integer>> entry : deficits.entrySet()) {
+            Map<Integer, Integer> productSurplus = surpluses.get(entry.getKey());
+            if (productSurplus != null) {
+                planProduct(plan, entry.getKey(), entry.getValue(), productSurplus);
+            }
+        }
+        return plan;
+    }
+
+    // Greedy heuristic per product: largest deficits first, served from stores in the same city
+    // before other cities, larger donors first so each store gets few transfer documents
+    private void planProduct(Plan plan, Integer productId, Map<Integer, Integer> deficit, Map<Integer, Integer> surplus) {
+        int[][] donors = surplus.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .sorted((a, b) -> Integer.compare(b.getValue(), a.getValue()))
+                .map(e -> new int[]{e.getKey(), e.getValue()})
+                .toArray(int[][]::new);
+        if (donors.length == 0) {
+            return;
+        }
+
+        List<Map.Entry<Integer, Integer>> receivers = deficit.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .sorted((a, b) -> Integer.compare(b.getValue(), a.getValue()))
+                .collect(Collectors.toList());
+
+        for (Map.Entry<Integer, Integer> receiver : receivers) {
+            int needed = receiver.getValue();
+            String city = plan.storeCities.get(receiver.getKey());
+            for (int pass = 0; pass < 2 && needed > 0; pass++) {
+                for (int[] donor : donors) {
+                    if (needed == 0) {
+                        break;
+                    }
+                    boolean sameCity = Objects.equals(city, plan.storeCities.get(donor[0]));
+                    if (donor[1] == 0 || donor[0] == receiver.getKey() || sameCity != (pass == 0)) {
+                        continue;
+                    }
+                    int quantity = Math.min(needed, donor[1]);
+                    donor[1] -= quantity;
+                    needed -= quantity;
+                    plan.moves.computeIfAbsent(((long) donor[0] << 32) | receiver.getKey(), k -> new TreeMap<>())
+                            .merge(productId, quantity, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private List<StockTransferDTO> toDTOs(List<StockTransfer> transfers) {
+        if (transfers.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, List<StockTransferDTO.TransferLineDTO>> linesByTransfer = new HashMap<>();
+        for (StockTransferLine line : transferLineRepository.findByTransferIdsWithProduct(transfers.stream()
+                .map(StockTransfer::getTransferId)
+                .collect(Collectors.toList()))) {
+            linesByTransfer.computeIfAbsent(line.getTransfer().getTransferId(), k -> new ArrayList<>())
+                    .add(new StockTransferDTO.TransferLineDTO(
+                            line.getTransferLineId(),
+                            line.getProduct().getProductId(),
+                            line.getProduct().getName(),
+                            line.getQuantity()));
+        }
+
+        return transfers.stream()
+                .map(t -> new StockTransferDTO(
+                        t.getTransferId(),
+                        t.getFromStore().getStoreId(),
+                        t.getFromStore().getAddress() + ", " + t.getFromStore().getCity(),
+                        t.getToStore().getStoreId(),
+                        t.getToStore().getAddress() + ", " + t.getToStore().getCity(),
+                        t.getOrderId(),
+                        t.getStatus(),
+                        t.getCreatedAt(),
+                        t.getCompletedAt(),
+                        linesByTransfer.getOrDefault(t.getTransferId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private static final class Plan {
+        final Map<Integer, String> storeNames = new HashMap<>();
+        final Map<Integer, String> storeCities = new HashMap<>();
+        final Map<Integer, String> productNames = new HashMap<>();
+        // Map<fromStoreId << 32 | toStoreId, Map<ProductId, quantity>>
+        final Map<Long, Map<Integer, Integer>> moves = new TreeMap<>();
+    }
+}
@@ -5,15 +5,17 @@ import org.pwr.store.dto.store.CreateStoreRequest;
 import org.pwr.store.dto.store.StoreDTO;
 import org.pwr.store.dto.store.StoreInventoryDTO;
 import org.pwr.store.dto.store.UpdateStoreRequest;
+import org.pwr.store.event.DeliveryStatusChangedEvent;
 import org.pwr.store.exception.ResourceAlreadyExistsException;
 import org.pwr.store.exception.ResourceNotFoundException;
-import org.pwr.store.model.ProductItem;
 import org.pwr.store.model.Product;
 import org.pwr.store.model.Store;
 import org.pwr.store.model.enums.ProductStatus;
 import org.pwr.store.repository.EmployeeRepository;
 import org.pwr.store.repository.ProductItemRepository;
+import org.pwr.store.repository.StockLevelRepository;
 import org.pwr.store.repository.StoreRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -29,9 +31,13 @@ public class StoreService {
     private final StoreRepository storeRepository;
     private final EmployeeRepository employeeRepository;
     private final ProductItemRepository productItemRepository;
+    private final StockLevelRepository stockLevelRepository;
     private final org.pwr.store.repository.ProductRepository productRepository;
     private final org.pwr.store.repository.DeliveryRepository deliveryRepository;
     private final org.pwr.store.repository.DeliveryLineRepository deliveryLineRepository;
+    private final DemandForecastService demandForecastService;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<StoreDTO> getAllStores(Pageable pageable) {
         return storeRepository.findAll(pageable).map(this::toDTO);
@@ -74,6 +80,7 @@ public class StoreService {
         store.setPhoneNumber(request.getPhoneNumber());
 
         store = storeRepository.save(store);
+        referenceDataCache.evictStore(store.getStoreId());
         return toDTO(store);
     }
 
@@ -93,6 +100,7 @@ public class StoreService {
         store.setPhoneNumber(request.getPhoneNumber());
 
         store = storeRepository.save(store);
+        referenceDataCache.evictStore(id);
         return toDTO(store);
     }
 
@@ -114,53 +122,36 @@ public class StoreService {
         }
 
         storeRepository.deleteById(id);
+        referenceDataCache.evictStore(id);
     }
 
-    public List<StoreInventoryDTO> getStoreInventory(Integer storeId) {
-        Store store = storeRepository.findById(storeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Store not found with id: " + storeId));
-
-        List<ProductItem> items = productItemRepository.findByStoreStoreIdWithProduct(storeId);
-
-        // Group by product
-        Map<Integer, List<ProductItem>> itemsByProduct = items.stream()
-                .collect(Collectors.groupingBy(item -> item.getProduct().getProductId()));
-
-        return itemsByProduct.entrySet().stream()
-                .map(entry -> {
-                    List<ProductItem> productItems = entry.getValue();
-                    ProductItem firstItem = productItems.get(0);
-
-                    int availableCount = (int) productItems.stream()
-                            .filter(item -> item.getCurrentStatus() == ProductStatus.NA_STANIE)
-                            .count();
-
-                    int onDisplayCount = (int) productItems.stream()
-                            .filter(item -> item.getCurrentStatus() == ProductStatus.NA_EKSPOZYCJI)
-                            .count();
-
-                    int reservedCount = (int) productItems.stream()
-                            .filter(item -> item.getCurrentStatus() == ProductStatus.ZAREZERWOWANY ||
-                                          item.getCurrentStatus() == ProductStatus.OCZEKUJE_NA_ODBIOR)
-                            .count();
-
-                    return new StoreInventoryDTO(
-                            firstItem.getProduct().getProductId(),
-                            firstItem.getProduct().getName(),
-                            firstItem.getProduct().getCategory().getName(),
-                            availableCount,
-                            onDisplayCount,
-                            reservedCount,
-                            productItems.size()
-                    );
-                })
-                .sorted(Comparator.comparing(StoreInventoryDTO::getProductName))
+    public List<StoreInventoryDTO> getStoreInventory(Integer storeId, boolean includeInactive) {
+        if (!storeRepository.existsById(storeId)) {
+            throw new ResourceNotFoundException("Store not found with id: " + storeId);
+        }
+        return stockLevelRepository.findInventoryByStore(storeId, inventoryStatuses(includeInactive));
+    }
+
+    public Page<StoreInventoryDTO> getStoreInventory(Integer storeId, boolean includeInactive, Pageable pageable) {
+        if (!storeRepository.existsById(storeId)) {
+            throw new ResourceNotFoundException("Store not found with id: " + storeId);
+        }
+        return stockLevelRepository.findInventoryPageByStore(storeId, inventoryStatuses(includeInactive), pageable);
+    }
+
+    // Sold and liquidated units are history, not inventory, unless explicitly requested
+    private List<ProductStatus> inventoryStatuses(boolean includeInactive) {
+        if (includeInactive) {
+            return Arrays.asList(ProductStatus.values());
+        }
+        return Arrays.stream(ProductStatus.values())
+                .filter(status -> status != ProductStatus.SPRZEDANY && status != ProductStatus.ZLIKWIDOWANY)
                 .collect(Collectors.toList());
     }
 
     private StoreDTO toDTO(Store store) {
         long employeeCount = employeeRepository.countByStoreStoreId(store.getStoreId());
-        long productCount = productItemRepository.countByStoreStoreId(store.getStoreId());
+        long productCount = stockLevelRepository.countByStore(store.getStoreId());
 
         return new StoreDTO(
                 store.getStoreId(),
@@ -173,74 +164,134 @@ public class StoreService {
     }
 
     public List<org.pwr.store.dto.store.LowStockItemDTO> getLowStockItems(Integer storeId) {
-        Store store = storeRepository.findById(storeId)
-                .orElseThrow(() -> new org.pwr.store.exception.ResourceNotFoundException("Store not found"));
-
-        List<Product> allProducts = productRepository.findAll();
-        List<org.pwr.store.dto.store.LowStockItemDTO> lowStockItems = new java.util.ArrayList<>();
-
-        for (Product product : allProducts) {
-            long currentStock = productItemRepository.countByProductProductIdAndStoreStoreIdAndCurrentStatus(
-                    product.getProductId(),
-                    storeId,
-                    org.pwr.store.model.enums.ProductStatus.NA_STANIE
-            );
-
-            if (currentStock < product.getLowStockThreshold()) {
-                int quantityNeeded = product.getMinimumStock() - (int) currentStock;
-                if (quantityNeeded > 0) {
-                    lowStockItems.add(new org.pwr.store.dto.store.LowStockItemDTO(
-                            product.getProductId(),
-                            product.getName(),
-                            storeId,
-                            store.getAddress() + ", " + store.getCity(),
-                            (int) currentStock,
-                            product.getLowStockThreshold(),
-                            product.getMinimumStock(),
-                            quantityNeeded
-                    ));
-                }
+        if (!storeRepository.existsById(storeId)) {
+            throw new org.pwr.store.exception.ResourceNotFoundException("Store not found");
+        }
+        return stockLevelRepository.findLowStockByStore(storeId);
+    }
+
+    public List<org.pwr.store.dto.store.LowStockItemDTO> getLowStockItemsForAllStores() {
+        return stockLevelRepository.findLowStockForAllStores();
+    }
+
+    // Quantity per product: enough to reach minimum stock, or to cover forecast demand if that is higher.
+    // Units already on the way (PRZYJETA / W_TRAKCIE deliveries) are subtracted, fully covered products are skipped.
+    public Map<Integer, Integer> getRestockQuantities(Integer storeId) {
+        Map<Integer, Integer> pending = new HashMap<>();
+        for (Object[] row : deliveryLineRepository.sumQuantityByProductForStore(
+                storeId, Arrays.asList("PRZYJETA", "W_TRAKCIE"))) {
+            pending.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
+
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (org.pwr.store.dto.store.LowStockItemDTO item : getLowStockItems(storeId)) {
+            int quantity = item.getQuantityNeeded() - pending.getOrDefault(item.getProductId(), 0);
+            if (quantity > 0) {
+                quantities.put(item.getProductId(), quantity);
             }
         }
+        // Forecast quantities already account for pending deliveries
+        demandForecastService.suggestReorderQuantities(storeId).forEach((productId, quantity) ->
+                quantities.merge(productId, quantity, Math::max));
+        return quantities;
+    }
+
+    // Chain-wide variant for the replenishment run: low stock, pending deliveries and forecasts in one query each
+    // Map<StoreId, Map<ProductId, quantity>>, ordered by store
+    public Map<Integer, Map<Integer, Integer>> getRestockQuantitiesForAllStores() {
+        Map<Integer, Map<Integer, Integer>> pending = new HashMap<>();
+        for (Object[] row : deliveryLineRepository.sumQuantityByStoreAndProduct(Arrays.asList("PRZYJETA", "W_TRAKCIE"))) {
+            pending.computeIfAbsent((Integer) row[0], k -> new HashMap<>())
+                    .put((Integer) row[1], ((Number) row[2]).intValue());
+        }
 
-        return lowStockItems;
+        Map<Integer, Map<Integer, Integer>> quantitiesByStore = new TreeMap<>();
+        for (org.pwr.store.dto.store.LowStockItemDTO item : getLowStockItemsForAllStores()) {
+            int quantity = item.getQuantityNeeded()
+                    - pending.getOrDefault(item.getStoreId(), Collections.emptyMap()).getOrDefault(item.getProductId(), 0);
+            if (quantity > 0) {
+                quantitiesByStore.computeIfAbsent(item.getStoreId(), k -> new LinkedHashMap<>())
+                        .put(item.getProductId(), quantity);
+            }
+        }
+        demandForecastService.suggestReorderQuantitiesForAllStores().forEach((storeId, forecast) ->
+                forecast.forEach((productId, quantity) ->
+                        quantitiesByStore.computeIfAbsent(storeId, k -> new LinkedHashMap<>())
+                                .merge(productId, quantity, Math::max)));
+        return quantitiesByStore;
     }
 
     @Transactional
     public org.pwr.store.dto.delivery.DeliveryDTO createAutoDeliveryForLowStock(Integer storeId) {
-        List<org.pwr.store.dto.store.LowStockItemDTO> lowStockItems = getLowStockItems(storeId);
+        Map<Integer, Integer> quantities = getRestockQuantities(storeId);
 
-        if (lowStockItems.isEmpty()) {
+        if (quantities.isEmpty()) {
             throw new IllegalStateException("No low stock items found for this store");
         }
 
-        Store store = storeRepository.findById(storeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Store not found"));
-
-        // Create delivery
-        org.pwr.store.model.Delivery delivery = new org.pwr.store.model.Delivery();
-        delivery.setSupplierName("Auto-Restocking");
-        delivery.setDeliveryDate(java.time.LocalDate.now().plusDays(3)); // Delivery in 3 days
-        delivery.setStatus("PRZYJETA");
-        delivery.setStore(store);
-        delivery = deliveryRepository.save(delivery);
-
-        // Create delivery lines for each low stock product
-        for (org.pwr.store.dto.store.LowStockItemDTO item : lowStockItems) {
-            org.pwr.store.model.Product product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-
-            org.pwr.store.model.DeliveryLine line = new org.pwr.store.model.DeliveryLine();
-            line.setDelivery(delivery);
-            line.setProduct(product);
-            line.setQuantity(item.getQuantityNeeded());
-            line.setPurchasePrice(product.getBasePrice().multiply(java.math.BigDecimal.valueOf(0.7))); // 70% of base price
-
-            deliveryLineRepository.save(line);
+        // Convert to DTO and return
+        return convertDeliveryToDTO(saveAutoDeliveries(Map.of(storeId, quantities)).get(0));
+    }
+
+    // Creates one auto-restocking delivery per store in a single transaction (inserts are JDBC-batched)
+    @Transactional
+    public List<Integer> createAutoDeliveries(Map<Integer, Map<Integer, Integer>> quantitiesByStore) {
+        return saveAutoDeliveries(quantitiesByStore).stream()
+                .map(org.pwr.store.model.Delivery::getDeliveryId)
+                .collect(Collectors.toList());
+    }
+
+    private List<org.pwr.store.model.Delivery> saveAutoDeliveries(Map<Integer, Map<Integer, Integer>> quantitiesByStore) {
+        Map<Integer, Store> stores = storeRepository.findAllById(quantitiesByStore.keySet()).stream()
+                .collect(Collectors.toMap(Store::getStoreId, s -> s));
+
+        // Load all restocked products in one query
+        Map<Integer, Product> products = productRepository.findAllById(quantitiesByStore.values().stream()
+                        .flatMap(quantities -> quantities.keySet().stream())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getProductId, p -> p));
+
+        List<org.pwr.store.model.Delivery> deliveries = new ArrayList<>();
+        List<org.pwr.store.model.DeliveryLine> lines = new ArrayList<>();
+        for (Map.Entry<Integer, Map<Integer, Integer>> storeEntry : quantitiesByStore.entrySet()) {
+            Store store = stores.get(storeEntry.getKey());
+            if (store == null) {
+                throw new ResourceNotFoundException("Store not found");
+            }
+
+            // Create delivery
+            org.pwr.store.model.Delivery delivery = new org.pwr.store.model.Delivery();
+            delivery.setSupplierName("Auto-Restocking");
+            delivery.setDeliveryDate(java.time.LocalDate.now().plusDays(3)); // Delivery in 3 days
+            delivery.setStatus("PRZYJETA");
+            delivery.setStore(store);
+            deliveries.add(delivery);
+
+            // Create delivery lines for each product
+            for (Map.Entry<Integer, Integer> entry : storeEntry.getValue().entrySet()) {
+                Product product = products.get(entry.getKey());
+                if (product == null) {
+                    throw new ResourceNotFoundException("Product not found");
+                }
+
+                org.pwr.store.model.DeliveryLine line = new org.pwr.store.model.DeliveryLine();
+                line.setDelivery(delivery);
+                line.setProduct(product);
+                line.setQuantity(entry.getValue());
+                line.setPurchasePrice(product.getBasePrice().multiply(java.math.BigDecimal.valueOf(0.7))); // 70% of base price
+                lines.add(line);
+            }
         }
 
-        // Convert to DTO and return
-        return convertDeliveryToDTO(delivery);
+        deliveryRepository.saveAll(deliveries);
+        deliveryLineRepository.saveAll(lines);
+
+        for (org.pwr.store.model.Delivery delivery : deliveries) {
+            eventPublisher.publishEvent(new DeliveryStatusChangedEvent(
+                    delivery.getDeliveryId(), delivery.getStatus(), delivery.getCreatedAt()));
+        }
+        return deliveries;
     }
 
     private org.pwr.store.dto.delivery.DeliveryDTO convertDeliveryToDTO(org.pwr.store.model.Delivery delivery) {
@@ -1,6 +1,7 @@
 package org.pwr.store.service;
 
 import lombok.RequiredArgsConstructor;
+import org.pwr.store.dto.CursorPageDTO;
 import org.pwr.store.dto.transaction.CreateTransactionRequest;
 import org.pwr.store.dto.transaction.TransactionDTO;
 import org.pwr.store.exception.ResourceNotFoundException;
@@ -8,8 +9,11 @@ import org.pwr.store.model.*;
 import org.pwr.store.model.enums.OrderStatus;
 import org.pwr.store.model.enums.ProductStatus;
 import org.pwr.store.repository.*;
+import org.pwr.store.util.KeysetCursor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -45,6 +49,34 @@ public class TransactionService {
         return transactionRepository.findByDocumentType(documentType, pageable).map(this::toDTO);
     }
 
+    // Keyset-paginated variant of the transaction history; filters are applied in the same precedence as the paged endpoint
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TransactionDTO> scrollTransactions(Integer employeeId, Integer customerId, String documentType,
+                                                            String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Pageable limit = PageRequest.of(0, KeysetCursor.clampSize(size));
+
+        Slice<Transaction> transactions;
+        if (employeeId != null) {
+            transactions = transactionRepository.findByEmployeeAfter(employeeId, cursor.getDateTime(), cursor.getId(), limit);
+        } else if (customerId != null) {
+            transactions = transactionRepository.findByCustomerAfter(customerId, cursor.getDateTime(), cursor.getId(), limit);
+        } else if (documentType != null) {
+            transactions = transactionRepository.findByDocumentTypeAfter(documentType, cursor.getDateTime(), cursor.getId(), limit);
+        } else {
+            transactions = transactionRepository.findAfter(cursor.getDateTime(), cursor.getId(), limit);
+        }
+
+        List<Transaction> content = transactions.getContent();
+        String nextCursor = null;
+        if (transactions.hasNext()) {
+            Transaction last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getTransactionDate(), last.getTransactionId());
+        }
+        return new CursorPageDTO<>(content.stream().map(this::toDTO).collect(Collectors.toList()),
+                content.size(), transactions.hasNext(), nextCursor);
+    }
+
     public TransactionDTO getTransactionById(Integer id) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
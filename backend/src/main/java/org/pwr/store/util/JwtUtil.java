@@ -1,14 +1,24 @@
 package org.pwr.store.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.pwr.store.security.JwtPrincipal;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,14 +26,43 @@ import java.util.Map;
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Long expiration;
+
+    // Recently verified tokens keyed by SHA-256 of the token, each entry expires with its token
+    private final Cache<String, JwtPrincipal> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") Long expiration,
+                   @Value("${app.security.token-cache.max-size:10000}") long tokenCacheMaxSize) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.expiration = expiration;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheMaxSize)
+                .expireAfter(new Expiry<String, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+                        if (principal.getExpiresAt() == null) {
+                            return Duration.ofMillis(expiration).toNanos();
+                        }
+                        return Math.max(0, Duration.between(Instant.now(), principal.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtPrincipal principal, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String username, String userType, String role) {
@@ -50,48 +89,81 @@ public class JwtUtil {
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .claims(claims)
+                .subject(subject)
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns all of its claims. A token seen before is answered from the
+     * verified-token cache without another signature check.
+     * Throws a JwtException when the token is invalid or expired.
+     */
+    public JwtPrincipal parseToken(String token) {
+        String key = hash(token);
+        JwtPrincipal cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        JwtPrincipal principal = new JwtPrincipal(
+                claims.getSubject(),
+                claims.get("userType", String.class),
+                claims.get("role", String.class),
+                claims.get("userId", Integer.class),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+        verifiedTokens.put(key, principal);
+        return principal;
+    }
+
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return parseToken(token).getUsername();
     }
 
     public String extractUserType(String token) {
-        return extractAllClaims(token).get("userType", String.class);
+        return parseToken(token).getUserType();
     }
 
     public String extractRole(String token) {
-        return extractAllClaims(token).get("role", String.class);
+        return parseToken(token).getRole();
     }
 
     public Integer extractUserId(String token) {
-        return extractAllClaims(token).get("userId", Integer.class);
+        return parseToken(token).getUserId();
     }
 
     public Date extractExpiration(String token) {
-        return extractAllClaims(token).getExpiration();
+        Instant expiresAt = parseToken(token).getExpiresAt();
+        return expiresAt != null ? Date.from(expiresAt) : null;
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        try {
+            return parseToken(token).isExpired();
+        } catch (ExpiredJwtException e) {
+            return true;
+        }
     }
 
     public boolean validateToken(String token, String username) {
-        final String tokenUsername = extractUsername(token);
-        return (tokenUsername.equals(username) && !isTokenExpired(token));
+        JwtPrincipal principal = parseToken(token);
+        return principal.getUsername().equals(username) && !principal.isExpired();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
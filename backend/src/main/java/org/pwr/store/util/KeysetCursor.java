@@ -0,0 +1,67 @@
+package org.pwr.store.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque position for keyset pagination: the sort key and id of the last row of the previous slice.
+// Rows are listed newest first, so the next slice continues strictly below this position.
+public final class KeysetCursor {
+
+    // Position before the first row, used when no cursor is given
+    private static final LocalDateTime MAX_DATE_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    // Upper bound for the size of one slice, whatever the client asks for
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final String key;
+    private final Integer id;
+
+    private KeysetCursor(String key, Integer id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static String encode(Object key, Integer id) {
+        String raw = key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return new KeysetCursor(null, Integer.MAX_VALUE);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(raw.substring(0, separator), Integer.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public LocalDateTime getDateTime() {
+        try {
+            return key == null ? MAX_DATE_TIME : LocalDateTime.parse(key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public LocalDate getDate() {
+        try {
+            return key == null ? MAX_DATE_TIME.toLocalDate() : LocalDate.parse(key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public Integer getId() {
+        return id;
+    }
+}
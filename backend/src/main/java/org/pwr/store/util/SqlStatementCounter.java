@@ -0,0 +1,95 @@
+package org.pwr.store.util;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-request SQL accounting. Registered with Hibernate both as statement inspector (counts every
+ * statement Hibernate prepares, per distinct SQL) and as session event listener (JDBC execution time).
+ * Totals live in a thread-local that SqlDiagnosticsFilter opens and closes around each request, so
+ * statements outside a request (schedulers, async pools) are not counted.
+ */
+public class SqlStatementCounter implements StatementInspector, SessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<Totals> CURRENT = new ThreadLocal<>();
+
+    // Sessions are confined to one thread, so a plain field is enough for the running statement
+    private long executeStart;
+
+    public static Totals startRequest() {
+        Totals totals = new Totals();
+        CURRENT.set(totals);
+        return totals;
+    }
+
+    public static void endRequest() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Totals totals = CURRENT.get();
+        if (totals != null) {
+            totals.statements++;
+            totals.bySql.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        addTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        addTime();
+    }
+
+    private void addTime() {
+        Totals totals = CURRENT.get();
+        if (totals != null) {
+            totals.nanos += System.nanoTime() - executeStart;
+        }
+    }
+
+    public static final class Totals {
+        private int statements;
+        private long nanos;
+        private final Map<String, Integer> bySql = new HashMap<>();
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        // The statement repeated most often, the usual signature of an N+1 loop
+        public Map.Entry<String, Integer> getMostRepeated() {
+            Map.Entry<String, Integer> top = null;
+            for (Map.Entry<String, Integer> entry : bySql.entrySet()) {
+                if (top == null || entry.getValue() > top.getValue()) {
+                    top = entry;
+                }
+            }
+            return top;
+        }
+    }
+}
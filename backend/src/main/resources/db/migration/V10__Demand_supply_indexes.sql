@@ -0,0 +1,5 @@
+-- Restock suggestions aggregate open demand (NOWE orders) and pending supply (deliveries on the way)
+CREATE INDEX idx_customerorders_new ON CustomerOrders(pickup_store_id)
+    WHERE status = 'NOWE';
+CREATE INDEX idx_orderlines_order ON OrderLines(order_id);
+CREATE INDEX idx_deliverylines_delivery ON DeliveryLines(delivery_id);
@@ -0,0 +1,3 @@
+-- Demand forecasting reads sales day by day
+CREATE INDEX idx_transactions_date ON Transactions(transaction_date);
+CREATE INDEX idx_transactionitems_transaction ON TransactionItems(transaction_id);
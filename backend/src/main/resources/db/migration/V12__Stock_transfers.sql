@@ -0,0 +1,25 @@
+-- Inter-store transfer documents
+-- A transfer moves NA_STANIE units of one or more products from one store to another.
+-- Planned by the rebalancing planner (ZAPLANOWANA), units are moved when it is completed (ZREALIZOWANA).
+
+CREATE TABLE StockTransfers (
+    transfer_id SERIAL PRIMARY KEY,
+    from_store_id INT NOT NULL REFERENCES Stores(store_id),
+    to_store_id INT NOT NULL REFERENCES Stores(store_id),
+    status VARCHAR(20) DEFAULT 'ZAPLANOWANA',
+    created_at TIMESTAMP DEFAULT NOW(),
+    completed_at TIMESTAMP
+);
+
+CREATE TABLE StockTransferLines (
+    transfer_line_id SERIAL PRIMARY KEY,
+    transfer_id INT NOT NULL REFERENCES StockTransfers(transfer_id),
+    product_id INT NOT NULL REFERENCES Products(product_id),
+    quantity INT NOT NULL
+);
+
+CREATE INDEX idx_stocktransferlines_transfer ON StockTransferLines(transfer_id);
+
+-- Same pooled allocation as the other entities (see V7__Pooled_id_sequences.sql)
+ALTER SEQUENCE stocktransfers_transfer_id_seq INCREMENT BY 50;
+ALTER SEQUENCE stocktransferlines_transfer_line_id_seq INCREMENT BY 50;
@@ -0,0 +1,4 @@
+-- Transfer legs of split-fulfilment orders: units moved from other stores to the order's pickup store
+ALTER TABLE StockTransfers ADD COLUMN order_id INT REFERENCES CustomerOrders(order_id);
+
+CREATE INDEX idx_stocktransfers_order ON StockTransfers(order_id) WHERE order_id IS NOT NULL;
@@ -0,0 +1,16 @@
+-- Keyset pagination: lists are read newest first and continue below the (date, id) of the last row,
+-- so every filter used by the scroll endpoints gets an index ending in the sort key.
+CREATE INDEX idx_customerorders_date_id ON CustomerOrders(order_date, order_id);
+CREATE INDEX idx_customerorders_status_date_id ON CustomerOrders(status, order_date, order_id);
+CREATE INDEX idx_customerorders_store_date_id ON CustomerOrders(pickup_store_id, order_date, order_id);
+CREATE INDEX idx_customerorders_customer_date_id ON CustomerOrders(customer_id, order_date, order_id);
+
+-- Also serves the day-by-day sales reads, replacing the single-column index
+CREATE INDEX idx_transactions_date_id ON Transactions(transaction_date, transaction_id);
+DROP INDEX IF EXISTS idx_transactions_date;
+CREATE INDEX idx_transactions_employee_date_id ON Transactions(employee_id, transaction_date, transaction_id);
+CREATE INDEX idx_transactions_customer_date_id ON Transactions(customer_id, transaction_date, transaction_id);
+CREATE INDEX idx_transactions_type_date_id ON Transactions(document_type, transaction_date, transaction_id);
+
+CREATE INDEX idx_deliveries_date_id ON Deliveries(delivery_date, delivery_id);
+CREATE INDEX idx_deliveries_status_date_id ON Deliveries(status, delivery_date, delivery_id);
@@ -0,0 +1,15 @@
+-- Indexed product search
+-- Full-text: weighted tsvector over name (A) and description (B), kept up to date as a generated column.
+-- The 'simple' configuration does no stemming, so Polish and English names are tokenized the same way.
+-- Trigrams on the lower-cased name serve substring (LIKE '%x%') and typo (similarity) matches.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE Products ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', COALESCE(name, '')), 'A') ||
+        setweight(to_tsvector('simple', COALESCE(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX idx_products_search_vector ON Products USING GIN (search_vector);
+CREATE INDEX idx_products_name_trgm ON Products USING GIN (LOWER(name) gin_trgm_ops);
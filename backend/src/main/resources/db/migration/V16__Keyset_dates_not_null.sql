@@ -0,0 +1,8 @@
+-- Keyset pagination compares (date, id) row values, which never match a NULL date: such rows would
+-- silently drop out of every scroll. Both columns always get a value on insert, so backfill any
+-- stray NULLs with the column default and forbid new ones. Deliveries.delivery_date is NOT NULL already.
+UPDATE CustomerOrders SET order_date = CURRENT_TIMESTAMP WHERE order_date IS NULL;
+ALTER TABLE CustomerOrders ALTER COLUMN order_date SET NOT NULL;
+
+UPDATE Transactions SET transaction_date = CURRENT_TIMESTAMP WHERE transaction_date IS NULL;
+ALTER TABLE Transactions ALTER COLUMN transaction_date SET NOT NULL;
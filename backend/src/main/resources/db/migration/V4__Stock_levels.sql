@@ -0,0 +1,63 @@
+-- Materialized per-store stock counters
+-- One row per (store, product, status) with the number of ProductItems in that state.
+-- Kept in sync by statement-level triggers on ProductItems, so every INSERT/UPDATE/DELETE
+-- of units updates the counters in the same transaction.
+
+CREATE TABLE stock_levels (
+    store_id INT NOT NULL REFERENCES Stores(store_id),
+    product_id INT NOT NULL REFERENCES Products(product_id),
+    status VARCHAR(20) NOT NULL,
+    qty INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (store_id, product_id, status)
+);
+
+-- Availability of a product across stores (ProductAvailability, alternative stores)
+CREATE INDEX idx_stock_levels_product_status ON stock_levels(product_id, status);
+
+CREATE OR REPLACE FUNCTION stock_levels_sync() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE stock_levels sl
+        SET qty = sl.qty - d.cnt
+        FROM (SELECT store_id, product_id, current_status::text AS status, COUNT(*) AS cnt
+              FROM old_rows
+              WHERE store_id IS NOT NULL AND product_id IS NOT NULL AND current_status IS NOT NULL
+              GROUP BY store_id, product_id, current_status) d
+        WHERE sl.store_id = d.store_id AND sl.product_id = d.product_id AND sl.status = d.status;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO stock_levels (store_id, product_id, status, qty)
+        SELECT store_id, product_id, current_status::text, COUNT(*)
+        FROM new_rows
+        WHERE store_id IS NOT NULL AND product_id IS NOT NULL AND current_status IS NOT NULL
+        GROUP BY store_id, product_id, current_status
+        ORDER BY store_id, product_id
+        ON CONFLICT (store_id, product_id, status) DO UPDATE SET qty = stock_levels.qty + EXCLUDED.qty;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_productitems_stock_insert
+    AFTER INSERT ON ProductItems
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION stock_levels_sync();
+
+CREATE TRIGGER trg_productitems_stock_update
+    AFTER UPDATE ON ProductItems
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION stock_levels_sync();
+
+CREATE TRIGGER trg_productitems_stock_delete
+    AFTER DELETE ON ProductItems
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION stock_levels_sync();
+
+-- Initial fill from existing units
+INSERT INTO stock_levels (store_id, product_id, status, qty)
+SELECT store_id, product_id, current_status::text, COUNT(*)
+FROM ProductItems
+WHERE store_id IS NOT NULL AND product_id IS NOT NULL AND current_status IS NOT NULL
+GROUP BY store_id, product_id, current_status;
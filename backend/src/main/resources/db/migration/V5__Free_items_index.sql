@@ -0,0 +1,4 @@
+-- Serves set-based reservation (OrderService.reserveItemsForOrder):
+-- picks free units of a product in a store without scanning sold history
+CREATE INDEX idx_productitems_free ON ProductItems(product_id, store_id, item_id)
+    WHERE current_status = 'NA_STANIE';
@@ -0,0 +1,31 @@
+-- Explicit link from a reserved unit to the order it is reserved for
+ALTER TABLE ProductItems ADD COLUMN reserved_for_order_id INT REFERENCES CustomerOrders(order_id);
+
+CREATE INDEX idx_productitems_reserved_order ON ProductItems(reserved_for_order_id)
+    WHERE reserved_for_order_id IS NOT NULL;
+
+-- Link units already reserved for orders in progress.
+-- Reserved units of a product in a store are handed out to open orders in order_id order.
+WITH demand AS (
+    SELECT o.order_id,
+           o.pickup_store_id AS store_id,
+           ol.product_id,
+           SUM(ol.quantity) AS qty,
+           SUM(SUM(ol.quantity)) OVER (PARTITION BY o.pickup_store_id, ol.product_id ORDER BY o.order_id) AS cum_qty
+    FROM CustomerOrders o
+    JOIN OrderLines ol ON ol.order_id = o.order_id
+    WHERE o.status IN ('W_REALIZACJI', 'GOTOWE_DO_ODBIORU')
+    GROUP BY o.order_id, o.pickup_store_id, ol.product_id
+),
+units AS (
+    SELECT item_id, store_id, product_id,
+           ROW_NUMBER() OVER (PARTITION BY store_id, product_id ORDER BY item_id) AS rn
+    FROM ProductItems
+    WHERE current_status IN ('ZAREZERWOWANY', 'OCZEKUJE_NA_ODBIOR')
+)
+UPDATE ProductItems pi
+SET reserved_for_order_id = d.order_id
+FROM units u
+JOIN demand d ON d.store_id = u.store_id AND d.product_id = u.product_id
+    AND u.rn > d.cum_qty - d.qty AND u.rn <= d.cum_qty
+WHERE pi.item_id = u.item_id;
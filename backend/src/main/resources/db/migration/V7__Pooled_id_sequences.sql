@@ -0,0 +1,17 @@
+-- Hibernate allocates ids in blocks of 50 (pooled-lo optimizer) so inserts can be JDBC-batched.
+-- The SERIAL sequences must step by the same allocation size; column defaults stay in place,
+-- so plain SQL inserts keep working (each one just consumes a whole block).
+-- ProductItems keeps an increment of 1: its units are created in bulk by INSERT ... SELECT.
+ALTER SEQUENCE stores_store_id_seq INCREMENT BY 50;
+ALTER SEQUENCE employees_employee_id_seq INCREMENT BY 50;
+ALTER SEQUENCE customers_customer_id_seq INCREMENT BY 50;
+ALTER SEQUENCE categories_category_id_seq INCREMENT BY 50;
+ALTER SEQUENCE products_product_id_seq INCREMENT BY 50;
+ALTER SEQUENCE deliveries_delivery_id_seq INCREMENT BY 50;
+ALTER SEQUENCE deliverylines_delivery_line_id_seq INCREMENT BY 50;
+ALTER SEQUENCE customerorders_order_id_seq INCREMENT BY 50;
+ALTER SEQUENCE orderlines_order_line_id_seq INCREMENT BY 50;
+ALTER SEQUENCE transactions_transaction_id_seq INCREMENT BY 50;
+ALTER SEQUENCE transactionitems_tx_item_id_seq INCREMENT BY 50;
+ALTER SEQUENCE returns_return_id_seq INCREMENT BY 50;
+ALTER SEQUENCE returnitems_return_item_id_seq INCREMENT BY 50;
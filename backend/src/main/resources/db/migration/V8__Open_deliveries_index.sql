@@ -0,0 +1,3 @@
+-- Lets the delivery scheduler load only deliveries that still have a transition ahead
+CREATE INDEX idx_deliveries_open ON Deliveries(status)
+    WHERE status IN ('PRZYJETA', 'W_TRAKCIE');
@@ -0,0 +1,6 @@
+-- Due-delivery sweep shared by all backend instances (ordered by creation time)
+CREATE INDEX idx_deliveries_open_created ON Deliveries(created_at)
+    WHERE status IN ('PRZYJETA', 'W_TRAKCIE');
+
+-- Idempotency check before materializing units of a delivery
+CREATE INDEX idx_productitems_delivery ON ProductItems(delivery_id);
@@ -0,0 +1,58 @@
+package org.pwr.store;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Base for tests that need the real schema: native queries, triggers and row locks only behave
+ * as in production on PostgreSQL, so Flyway migrates a real database before the context starts.
+ * TEST_DATABASE_URL (with TEST_DATABASE_USERNAME / TEST_DATABASE_PASSWORD) points the tests at an
+ * existing database; otherwise a throwaway container is started, and without Docker the tests are skipped.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.pwr.store=INFO",
+        "logging.level.org.springframework.security=INFO"
+})
+public abstract class PostgresIntegrationTest {
+
+    private static final String DATABASE_URL = System.getenv("TEST_DATABASE_URL");
+
+    private static PostgreSQLContainer<?> container;
+
+    @BeforeAll
+    static void requireDatabase() {
+        if (DATABASE_URL == null) {
+            assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+                    "Neither TEST_DATABASE_URL nor Docker is available");
+            startContainer();
+        }
+    }
+
+    // One container for all test classes; Testcontainers removes it when the JVM exits
+    private static synchronized void startContainer() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> DATABASE_URL != null
+                ? DATABASE_URL
+                : container.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", () -> DATABASE_URL != null
+                ? System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres")
+                : container.getUsername());
+        registry.add("spring.datasource.password", () -> DATABASE_URL != null
+                ? System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", "")
+                : container.getPassword());
+    }
+}
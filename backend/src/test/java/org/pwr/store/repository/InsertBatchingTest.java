@@ -0,0 +1,99 @@
+package org.pwr.store.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.pwr.store.PostgresIntegrationTest;
+import org.pwr.store.model.CustomerOrder;
+import org.pwr.store.model.OrderLine;
+import org.pwr.store.model.enums.OrderStatus;
+import org.pwr.store.util.SqlStatementCounter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pooled-lo ids (allocation size 50) let Hibernate batch inserts (hibernate.jdbc.batch_size=50):
+ * an order with 100 lines is written with a handful of statements instead of one per row.
+ */
+class InsertBatchingTest extends PostgresIntegrationTest {
+
+    private static final int LINES = 100;
+
+    @Autowired
+    private CustomerOrderRepository orderRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer orderId;
+
+    @AfterEach
+    void removeTestData() {
+        if (orderId != null) {
+            jdbcTemplate.update("DELETE FROM orderlines WHERE order_id = ?", orderId);
+            jdbcTemplate.update("DELETE FROM customerorders WHERE order_id = ?", orderId);
+        }
+    }
+
+    @Test
+    void multiLineOrderIsInsertedInBatches() {
+        Integer customerId = jdbcTemplate.queryForObject("SELECT MIN(customer_id) FROM customers", Integer.class);
+        Integer storeId = jdbcTemplate.queryForObject("SELECT MIN(store_id) FROM stores", Integer.class);
+        Integer productId = jdbcTemplate.queryForObject("SELECT MIN(product_id) FROM products", Integer.class);
+
+        SqlStatementCounter.Totals totals = SqlStatementCounter.startRequest();
+        try {
+            orderId = transactionTemplate.execute(status -> {
+                CustomerOrder order = new CustomerOrder();
+                order.setCustomer(customerRepository.getReferenceById(customerId));
+                order.setPickupStore(storeRepository.getReferenceById(storeId));
+                order.setStatus(OrderStatus.NOWE);
+                order.setTotalAmount(BigDecimal.ZERO);
+                orderRepository.save(order);
+
+                List<OrderLine> lines = new ArrayList<>();
+                for (int i = 0; i < LINES; i++) {
+                    OrderLine line = new OrderLine();
+                    line.setOrder(order);
+                    line.setProduct(productRepository.getReferenceById(productId));
+                    line.setQuantity(1);
+                    line.setPriceAtOrder(BigDecimal.TEN);
+                    lines.add(line);
+                }
+                orderLineRepository.saveAll(lines);
+                return order.getOrderId();
+            });
+        } finally {
+            SqlStatementCounter.endRequest();
+        }
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orderlines WHERE order_id = ?", Integer.class, orderId))
+                .isEqualTo(LINES);
+
+        // At most: order 1 sequence call + 1 insert, lines 2 sequence calls (50 ids each) + 2 batches of 50;
+        // without batching this would be over 100 statements
+        assertThat(totals.getStatements()).isLessThanOrEqualTo(6);
+    }
+}
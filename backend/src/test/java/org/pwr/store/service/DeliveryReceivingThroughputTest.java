@@ -0,0 +1,114 @@
+package org.pwr.store.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pwr.store.PostgresIntegrationTest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Receiving throughput for a 5,000-unit pallet: the single INSERT ... SELECT of updateDeliveryStatus
+ * against the former path, one INSERT ... RETURNING round trip per unit (what IDENTITY ids forced).
+ * Units per second of both are logged; the bulk path has to win.
+ */
+class DeliveryReceivingThroughputTest extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryReceivingThroughputTest.class);
+
+    private static final int PRODUCTS = 5;
+    private static final int UNITS_PER_PRODUCT = 1000;
+    private static final int UNITS = PRODUCTS * UNITS_PER_PRODUCT;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer storeId;
+    private List<Integer> productIds;
+    private final List<Integer> deliveryIds = new ArrayList<>();
+
+    @BeforeEach
+    void findStoreAndProducts() {
+        storeId = jdbcTemplate.queryForObject("SELECT MIN(store_id) FROM stores", Integer.class);
+        productIds = jdbcTemplate.queryForList(
+                "SELECT product_id FROM products ORDER BY product_id LIMIT " + PRODUCTS, Integer.class);
+    }
+
+    @AfterEach
+    void removeTestData() {
+        for (Integer deliveryId : deliveryIds) {
+            jdbcTemplate.update("DELETE FROM productitems WHERE delivery_id = ?", deliveryId);
+            jdbcTemplate.update("DELETE FROM deliverylines WHERE delivery_id = ?", deliveryId);
+            jdbcTemplate.update("DELETE FROM deliveries WHERE delivery_id = ?", deliveryId);
+        }
+        deliveryIds.clear();
+    }
+
+    @Test
+    void bulkReceivingBeatsRowByRowInserts() {
+        Integer rowByRowDelivery = createDelivery();
+        long rowByRowNanos = time(() -> transactionTemplate.executeWithoutResult(status -> {
+            for (Integer productId : productIds) {
+                for (int i = 0; i < UNITS_PER_PRODUCT; i++) {
+                    jdbcTemplate.queryForObject(
+                            "INSERT INTO productitems (product_id, delivery_id, store_id, current_status) " +
+                            "VALUES (?, ?, ?, 'NA_STANIE') RETURNING item_id",
+                            Integer.class, productId, rowByRowDelivery, storeId);
+                }
+            }
+        }));
+
+        Integer bulkDelivery = createDelivery();
+        long bulkNanos = time(() -> deliveryService.updateDeliveryStatus(bulkDelivery, "ZREALIZOWANA"));
+
+        assertThat(unitsOf(rowByRowDelivery)).isEqualTo(UNITS);
+        assertThat(unitsOf(bulkDelivery)).isEqualTo(UNITS);
+
+        double rowByRowRate = UNITS / (rowByRowNanos / 1e9);
+        double bulkRate = UNITS / (bulkNanos / 1e9);
+        log.info("Receiving {} units: row by row {} units/s ({} ms), INSERT ... SELECT {} units/s ({} ms)",
+                UNITS, Math.round(rowByRowRate), rowByRowNanos / 1_000_000,
+                Math.round(bulkRate), bulkNanos / 1_000_000);
+
+        assertThat(bulkRate).isGreaterThan(rowByRowRate);
+    }
+
+    private Integer createDelivery() {
+        Integer deliveryId = jdbcTemplate.queryForObject(
+                "INSERT INTO deliveries (supplier_name, delivery_date, status, store_id) " +
+                "VALUES ('Receiving benchmark', CURRENT_DATE, 'W_TRAKCIE', ?) RETURNING delivery_id",
+                Integer.class, storeId);
+        deliveryIds.add(deliveryId);
+        for (Integer productId : productIds) {
+            jdbcTemplate.update(
+                    "INSERT INTO deliverylines (delivery_id, product_id, quantity, purchase_price) VALUES (?, ?, ?, 1.00)",
+                    deliveryId, productId, UNITS_PER_PRODUCT);
+        }
+        return deliveryId;
+    }
+
+    private int unitsOf(Integer deliveryId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM productitems WHERE delivery_id = ?", Integer.class, deliveryId);
+    }
+
+    private static long time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,128 @@
+package org.pwr.store.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pwr.store.PostgresIntegrationTest;
+import org.pwr.store.dto.order.CreateOrderRequest;
+import org.pwr.store.model.enums.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 100 orders for the same product and store are moved to W_REALIZACJI at the same moment,
+ * with less stock than all of them need together.
+ */
+class OrderReservationConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int ORDERS = 100;
+    private static final int UNITS_PER_ORDER = 3;
+    private static final int UNITS_ON_STOCK = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer storeId;
+    private Integer productId;
+    private final List<Integer> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void createStockAndOrders() {
+        storeId = jdbcTemplate.queryForObject("SELECT MIN(store_id) FROM stores", Integer.class);
+        Integer customerId = jdbcTemplate.queryForObject("SELECT MIN(customer_id) FROM customers", Integer.class);
+        Integer categoryId = jdbcTemplate.queryForObject("SELECT MIN(category_id) FROM categories", Integer.class);
+
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (category_id, name, description, base_price) " +
+                "VALUES (?, ?, 'Concurrency test product', 10.00) RETURNING product_id",
+                Integer.class, categoryId, "Reservation test " + System.nanoTime());
+        jdbcTemplate.update(
+                "INSERT INTO productitems (product_id, store_id, current_status) " +
+                "SELECT ?, ?, 'NA_STANIE' FROM generate_series(1, ?)",
+                productId, storeId, UNITS_ON_STOCK);
+
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setPickupStoreId(storeId);
+        request.setLines(List.of(new CreateOrderRequest.OrderLineRequest(productId, UNITS_PER_ORDER)));
+        request.setIgnoreAvailability(true);
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds.add(orderService.createOrder(customerId, request).getOrderId());
+        }
+    }
+
+    @AfterEach
+    void removeTestData() {
+        jdbcTemplate.update("DELETE FROM productitems WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM stock_levels WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM orderlines WHERE product_id = ?", productId);
+        for (Integer orderId : orderIds) {
+            jdbcTemplate.update("DELETE FROM customerorders WHERE order_id = ?", orderId);
+        }
+        jdbcTemplate.update("DELETE FROM products WHERE product_id = ?", productId);
+        orderIds.clear();
+    }
+
+    @Test
+    void concurrentOrdersNeverReserveTheSameUnitTwice() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(ORDERS)) {
+            for (Integer orderId : orderIds) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.updateOrderStatus(orderId, OrderStatus.W_REALIZACJI);
+                        return true;
+                    } catch (IllegalStateException e) {
+                        return false; // Not enough free units left for this order
+                    }
+                }));
+            }
+            start.countDown();
+        }
+
+        int reservedOrders = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                reservedOrders++;
+            }
+        }
+
+        // Units claimed per order: a unit taken twice would leave an earlier order short
+        Map<Integer, Integer> unitsByOrder = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT reserved_for_order_id, COUNT(*) FROM productitems " +
+                "WHERE product_id = ? AND current_status = 'ZAREZERWOWANY' GROUP BY reserved_for_order_id",
+                rs -> { unitsByOrder.put(rs.getInt(1), rs.getInt(2)); },
+                productId);
+
+        assertThat(reservedOrders).isPositive().isLessThanOrEqualTo(UNITS_ON_STOCK / UNITS_PER_ORDER);
+        assertThat(unitsByOrder).hasSize(reservedOrders);
+        assertThat(unitsByOrder.values()).containsOnly(UNITS_PER_ORDER);
+        assertThat(unitsByOrder.keySet()).isSubsetOf(orderIds);
+
+        // Rejected orders kept nothing, and the trigger-maintained counters agree with the units
+        Integer freeUnits = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM productitems WHERE product_id = ? AND current_status = 'NA_STANIE'",
+                Integer.class, productId);
+        assertThat(freeUnits).isEqualTo(UNITS_ON_STOCK - reservedOrders * UNITS_PER_ORDER);
+        Integer freeCounter = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(qty), 0) FROM stock_levels WHERE product_id = ? AND status = 'NA_STANIE'",
+                Integer.class, productId);
+        assertThat(freeCounter).isEqualTo(freeUnits);
+    }
+}
@@ -0,0 +1,133 @@
+package org.pwr.store.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pwr.store.PostgresIntegrationTest;
+import org.pwr.store.dto.order.CreateOrderRequest;
+import org.pwr.store.model.enums.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A split order takes 1 unit from its pickup store and 2 units through a transfer leg from another store.
+ */
+class OrderTransferLegTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockTransferService stockTransferService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer customerId;
+    private Integer pickupStoreId;
+    private Integer sourceStoreId;
+    private Integer productId;
+
+    @BeforeEach
+    void createStock() {
+        List<Integer> storeIds = jdbcTemplate.queryForList(
+                "SELECT store_id FROM stores ORDER BY store_id LIMIT 2", Integer.class);
+        pickupStoreId = storeIds.get(0);
+        sourceStoreId = storeIds.get(1);
+        customerId = jdbcTemplate.queryForObject("SELECT MIN(customer_id) FROM customers", Integer.class);
+        Integer categoryId = jdbcTemplate.queryForObject("SELECT MIN(category_id) FROM categories", Integer.class);
+
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO products (category_id, name, description, base_price) " +
+                "VALUES (?, ?, 'Transfer leg test product', 10.00) RETURNING product_id",
+                Integer.class, categoryId, "Transfer leg test " + System.nanoTime());
+        addUnits(pickupStoreId, 1);
+        addUnits(sourceStoreId, 5);
+    }
+
+    @AfterEach
+    void removeTestData() {
+        List<Integer> orderIds = jdbcTemplate.queryForList(
+                "SELECT order_id FROM orderlines WHERE product_id = ?", Integer.class, productId);
+        jdbcTemplate.update("DELETE FROM stocktransferlines WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM productitems WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM stock_levels WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM orderlines WHERE product_id = ?", productId);
+        for (Integer orderId : orderIds) {
+            jdbcTemplate.update("DELETE FROM stocktransfers WHERE order_id = ?", orderId);
+            jdbcTemplate.update("DELETE FROM customerorders WHERE order_id = ?", orderId);
+        }
+        jdbcTemplate.update("DELETE FROM products WHERE product_id = ?", productId);
+    }
+
+    @Test
+    void legUnitsAreHeldForTheOrderUntilTheyArrive() {
+        Integer orderId = createSplitOrder(3);
+        Integer transferId = jdbcTemplate.queryForObject(
+                "SELECT transfer_id FROM stocktransfers WHERE order_id = ?", Integer.class, orderId);
+
+        // The leg claimed its units in the source store right away
+        assertThat(reservedFor(orderId, sourceStoreId)).isEqualTo(2);
+        assertThat(freeUnits(sourceStoreId)).isEqualTo(3);
+
+        // The order cannot be prepared while the leg is on its way
+        assertThatThrownBy(() -> orderService.updateOrderStatus(orderId, OrderStatus.W_REALIZACJI))
+                .isInstanceOf(IllegalStateException.class);
+
+        stockTransferService.updateTransferStatus(transferId, "ZREALIZOWANA");
+        assertThat(reservedFor(orderId, sourceStoreId)).isZero();
+        assertThat(reservedFor(orderId, pickupStoreId)).isEqualTo(2);
+        assertThat(freeUnits(sourceStoreId)).isEqualTo(3);
+
+        // Only the unit still missing is reserved in the pickup store
+        orderService.updateOrderStatus(orderId, OrderStatus.W_REALIZACJI);
+        assertThat(reservedFor(orderId, pickupStoreId)).isEqualTo(3);
+        assertThat(freeUnits(pickupStoreId)).isZero();
+    }
+
+    @Test
+    void cancellingTheOrderReleasesLegUnits() {
+        Integer orderId = createSplitOrder(3);
+
+        orderService.cancelOrder(orderId);
+
+        assertThat(reservedFor(orderId, sourceStoreId)).isZero();
+        assertThat(freeUnits(sourceStoreId)).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT status FROM stocktransfers WHERE order_id = ?", String.class, orderId))
+                .isEqualTo("ANULOWANA");
+    }
+
+    private Integer createSplitOrder(int quantity) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setPickupStoreId(pickupStoreId);
+        request.setLines(List.of(new CreateOrderRequest.OrderLineRequest(productId, quantity)));
+        request.setAllowSplit(true);
+        return orderService.createOrder(customerId, request).getOrderId();
+    }
+
+    private void addUnits(Integer storeId, int count) {
+        jdbcTemplate.update(
+                "INSERT INTO productitems (product_id, store_id, current_status) " +
+                "SELECT ?, ?, 'NA_STANIE' FROM generate_series(1, ?)",
+                productId, storeId, count);
+    }
+
+    private int reservedFor(Integer orderId, Integer storeId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM productitems " +
+                "WHERE reserved_for_order_id = ? AND store_id = ? AND current_status = 'ZAREZERWOWANY'",
+                Integer.class, orderId, storeId);
+    }
+
+    private int freeUnits(Integer storeId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM productitems WHERE product_id = ? AND store_id = ? AND current_status = 'NA_STANIE'",
+                Integer.class, productId, storeId);
+    }
+}
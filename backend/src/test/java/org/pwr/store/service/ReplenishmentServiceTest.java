@@ -0,0 +1,70 @@
+package org.pwr.store.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.pwr.store.PostgresIntegrationTest;
+import org.pwr.store.dto.store.ReplenishmentRunDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The run plans all stores from the chain-wide queries and commits one delivery per store on its own.
+ */
+class ReplenishmentServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ReplenishmentService replenishmentService;
+
+    @Autowired
+    private StoreService storeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Integer> deliveryIds = new ArrayList<>();
+
+    @AfterEach
+    void removeDeliveries() {
+        for (Integer deliveryId : deliveryIds) {
+            jdbcTemplate.update("DELETE FROM productitems WHERE delivery_id = ?", deliveryId);
+            jdbcTemplate.update("DELETE FROM deliverylines WHERE delivery_id = ?", deliveryId);
+            jdbcTemplate.update("DELETE FROM deliveries WHERE delivery_id = ?", deliveryId);
+        }
+        deliveryIds.clear();
+    }
+
+    @Test
+    void eachStoreWithLowStockGetsItsOwnDelivery() {
+        Map<Integer, Map<Integer, Integer>> planned = storeService.getRestockQuantitiesForAllStores();
+
+        ReplenishmentRunDTO run = replenishmentService.runReplenishment();
+        run.getStores().stream()
+                .map(ReplenishmentRunDTO.StoreTimingDTO::getDeliveryId)
+                .filter(id -> id != null)
+                .forEach(deliveryIds::add);
+
+        assertThat(planned).isNotEmpty();
+        assertThat(run.getStores()).allSatisfy(store -> assertThat(store.getError()).isNull());
+        assertThat(run.getDeliveriesCreated()).isEqualTo(planned.size()).isEqualTo(deliveryIds.size());
+        assertThat(run.getPlanningMs()).isNotNull().isLessThanOrEqualTo(run.getDurationMs());
+        for (ReplenishmentRunDTO.StoreTimingDTO store : run.getStores()) {
+            Map<Integer, Integer> quantities = planned.get(store.getStoreId());
+            if (quantities == null) {
+                assertThat(store.getDeliveryId()).isNull();
+                continue;
+            }
+            Integer units = jdbcTemplate.queryForObject(
+                    "SELECT SUM(quantity) FROM deliverylines WHERE delivery_id = ?", Integer.class, store.getDeliveryId());
+            assertThat(units).isEqualTo(quantities.values().stream().mapToInt(Integer::intValue).sum());
+        }
+
+        // The new deliveries are pending now, so a second plan has nothing left to order
+        assertThat(storeService.getRestockQuantitiesForAllStores()).isEmpty();
+    }
+}
@@ -0,0 +1,132 @@
+package org.pwr.store.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pwr.store.PostgresIntegrationTest;
+import org.pwr.store.dto.cache.SecondLevelCacheStatsDTO;
+import org.pwr.store.dto.order.CreateOrderRequest;
+import org.pwr.store.repository.StoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays a read-heavy request mix from a cold second-level cache and checks the hit rates of the
+ * categories, stores and products regions and of the query cache. Every call runs in its own session,
+ * as a request does with open-in-view disabled, so hits come from the shared cache only.
+ */
+class SecondLevelCacheReplayTest extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SecondLevelCacheReplayTest.class);
+
+    private static final int REQUESTS = 1000;
+    private static final int ORDERS = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private StoreService storeService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer customerId;
+    private List<Integer> productIds;
+    private List<Integer> storeIds;
+    private final List<Integer> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void createOrders() {
+        customerId = jdbcTemplate.queryForObject("SELECT MIN(customer_id) FROM customers", Integer.class);
+        productIds = jdbcTemplate.queryForList("SELECT product_id FROM products ORDER BY product_id", Integer.class);
+        storeIds = jdbcTemplate.queryForList("SELECT store_id FROM stores ORDER BY store_id", Integer.class);
+
+        Random random = new Random(7);
+        for (int i = 0; i < ORDERS; i++) {
+            CreateOrderRequest request = new CreateOrderRequest();
+            request.setPickupStoreId(storeIds.get(random.nextInt(storeIds.size())));
+            request.setLines(List.of(
+                    new CreateOrderRequest.OrderLineRequest(productIds.get(random.nextInt(productIds.size())), 1),
+                    new CreateOrderRequest.OrderLineRequest(productIds.get(random.nextInt(productIds.size())), 2)));
+            request.setIgnoreAvailability(true);
+            orderIds.add(orderService.createOrder(customerId, request).getOrderId());
+        }
+    }
+
+    @AfterEach
+    void removeOrders() {
+        for (Integer orderId : orderIds) {
+            jdbcTemplate.update("DELETE FROM orderlines WHERE order_id = ?", orderId);
+            jdbcTemplate.update("DELETE FROM customerorders WHERE order_id = ?", orderId);
+        }
+        orderIds.clear();
+    }
+
+    @Test
+    void replayedRequestMixIsServedFromTheCache() {
+        entityManagerFactory.getCache().evictAll();
+        secondLevelCacheService.resetStats();
+
+        // Product detail 40%, category menu 15%, store detail 15%, store list 10%, customer order history 20%
+        Random random = new Random(42);
+        for (int i = 0; i < REQUESTS; i++) {
+            int pick = random.nextInt(100);
+            if (pick < 40) {
+                productService.getProductById(productIds.get(random.nextInt(productIds.size())));
+            } else if (pick < 55) {
+                categoryService.getAllCategories();
+            } else if (pick < 70) {
+                storeService.getStoreById(storeIds.get(random.nextInt(storeIds.size())));
+            } else if (pick < 80) {
+                storeRepository.findAll();
+            } else {
+                orderService.getOrdersByCustomer(customerId, PageRequest.of(0, 10));
+            }
+        }
+
+        SecondLevelCacheStatsDTO stats = secondLevelCacheService.getStats();
+        Map<String, SecondLevelCacheStatsDTO.RegionStats> regions = stats.getRegions().stream()
+                .collect(Collectors.toMap(SecondLevelCacheStatsDTO.RegionStats::getRegion, region -> region));
+        for (String name : List.of("categories", "stores", "products")) {
+            SecondLevelCacheStatsDTO.RegionStats region = regions.get(name);
+            log.info("Region {}: {} hits, {} misses, hit rate {}",
+                    name, region.getHitCount(), region.getMissCount(), region.getHitRate());
+        }
+        log.info("Query cache: {} hits, {} misses, hit rate {}",
+                stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount(), stats.getQueryCacheHitRate());
+
+        // Misses are limited to the first load of each entity and query result
+        assertThat(regions.get("categories").getHitRate()).isGreaterThan(0.9);
+        assertThat(regions.get("stores").getHitRate()).isGreaterThan(0.9);
+        assertThat(regions.get("products").getHitRate()).isGreaterThan(0.9);
+        assertThat(stats.getQueryCacheHitRate()).isGreaterThan(0.9);
+    }
+}
@@ -0,0 +1,71 @@
+package org.pwr.store.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.pwr.store.security.JwtPrincipal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT authentication cost:
+ * - fiveParses: the former filter path, five signature checks and JSON parses with the key rebuilt each time
+ * - coldParse: one verification with the precomputed key, what parseToken pays for a token it has not seen
+ * - cachedParse: parseToken for a token already in the verified-token cache
+ * Run with: mvn test-compile, then java -cp target/test-classes:target/classes:{test classpath}
+ * org.openjdk.jmh.Main JwtParseBenchmark (or this class's main method from the IDE).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hmac-sha-256";
+
+    private JwtUtil jwtUtil;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 3_600_000L, 10_000);
+        parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build();
+        token = jwtUtil.generateTokenWithId("jan.kowalski@store.com", "CUSTOMER", null, 42);
+        jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public void fiveParses(Blackhole blackhole) {
+        for (int i = 0; i < 5; i++) {
+            blackhole.consume(Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload());
+        }
+    }
+
+    @Benchmark
+    public Claims coldParse() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public JwtPrincipal cachedParse() {
+        return jwtUtil.parseToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtParseBenchmark.class.getSimpleName()).build()).run();
+    }
+}